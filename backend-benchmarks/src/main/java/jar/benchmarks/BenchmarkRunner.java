@@ -0,0 +1,55 @@
+package jar.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Entry point for `mvn exec:exec@jmh`. Accepts the usual JMH command line and, unless -rff is given,
+// writes JSON results to target/jmh-results/<timestamp>-<commit>.json so runs from different
+// commits sit side by side and can be diffed (or loaded into any JMH result visualizer).
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli);
+
+        if (cli.getResult().hasValue()) {
+            options.resultFormat(cli.getResultFormat().orElse(ResultFormatType.JSON));
+        } else {
+            Path dir = Files.createDirectories(Path.of("target", "jmh-results"));
+            String name = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "-" + commit() + ".json";
+            options.resultFormat(ResultFormatType.JSON).result(dir.resolve(name).toString());
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    // Short hash of HEAD, or "unknown" outside a git checkout
+    private static String commit() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = out.readLine();
+                return git.waitFor() == 0 && line != null ? line.trim() : "unknown";
+            }
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+}
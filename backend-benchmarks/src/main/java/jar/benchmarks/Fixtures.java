@@ -0,0 +1,140 @@
+package jar.benchmarks;
+
+import jar.model.ActivityLog;
+import jar.model.Content;
+import jar.model.Payment;
+import jar.model.Plan;
+import jar.model.Subscription;
+import jar.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic, realistically shaped entities for the serialization benchmarks.
+// The same seed always produces the same objects, so runs stay comparable.
+final class Fixtures {
+
+    static final String[] CONTENT_TYPES = {"WORKOUT", "STUDY_TIP", "RECIPE"};
+    static final String[] CATEGORIES = {"Cardio", "Strength", "Mobility", "Focus", "Memory", "Breakfast", "Dinner"};
+    static final String[] DIFFICULTIES = {"BEGINNER", "INTERMEDIATE", "ADVANCED"};
+    static final String[] PAYMENT_METHODS = {"GCash", "PayPal", "Card"};
+
+    private static final String DETAILS = "{\"benefits\":[\"Improves endurance\",\"Burns calories\",\"Boosts focus\"],"
+            + "\"steps\":[\"Warm up for five minutes\",\"Repeat the circuit three times\",\"Cool down and stretch\"]}";
+
+    private Fixtures() {
+    }
+
+    static List<Content> contents(int count, long seed) {
+        Random random = new Random(seed);
+        List<Content> contents = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            contents.add(content(i, random));
+        }
+        return contents;
+    }
+
+    static List<User> users(int count, long seed) {
+        Random random = new Random(seed);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            users.add(user(i, random));
+        }
+        return users;
+    }
+
+    static List<ActivityLog> activityLogs(int count, long seed) {
+        Random random = new Random(seed);
+        List<User> users = users(Math.max(1, count / 20), seed);
+        List<Content> contents = contents(Math.max(1, count / 10), seed);
+        List<ActivityLog> logs = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            ActivityLog log = new ActivityLog();
+            log.setId((long) i);
+            log.setUser(users.get(random.nextInt(users.size())));
+            log.setContent(contents.get(random.nextInt(contents.size())));
+            log.setStatus(random.nextInt(4) == 0 ? "STARTED" : "COMPLETED");
+            log.setDateAccessed(LocalDateTime.of(2025, 1, 1, 6, 0).plusMinutes(random.nextInt(500_000)));
+            logs.add(log);
+        }
+        return logs;
+    }
+
+    static List<Payment> payments(int count, long seed) {
+        Random random = new Random(seed);
+        List<User> users = users(Math.max(1, count / 2), seed);
+        Plan plan = new Plan();
+        plan.setId(2L);
+        plan.setPlanName("Premium Monthly");
+        plan.setDescription("Unlock your full potential");
+        plan.setPrice(12.99);
+        plan.setDurationDays(30);
+
+        List<Payment> payments = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = users.get(random.nextInt(users.size()));
+            LocalDate start = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+
+            Subscription subscription = new Subscription();
+            subscription.setId((long) i);
+            subscription.setUser(user);
+            subscription.setPlan(plan);
+            subscription.setStartDate(start);
+            subscription.setEndDate(start.plusDays(plan.getDurationDays()));
+            subscription.setIsActive(true);
+
+            Payment payment = new Payment();
+            payment.setId((long) i);
+            payment.setUser(user);
+            payment.setSubscription(subscription);
+            payment.setAmount(plan.getPrice());
+            payment.setPaymentDate(start.atTime(9, 30).plusMinutes(random.nextInt(600)));
+            payment.setPaymentMethod(PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+            payment.setStatus("PAID");
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    static Content content(long id, Random random) {
+        String type = CONTENT_TYPES[random.nextInt(CONTENT_TYPES.length)];
+        Content content = new Content();
+        content.setId(id);
+        content.setTitle("Session " + id + " " + CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        content.setDescription("A guided " + type.toLowerCase() + " session with clear instructions, tips and common mistakes to avoid.");
+        content.setContentType(type);
+        content.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        content.setDifficultyLevel(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]);
+        content.setAccessLevel(random.nextInt(3) == 0 ? "PREMIUM" : "FREE");
+        content.setDurationMinutes(5 + random.nextInt(55));
+        content.setVideoUrl("https://videos.example.com/" + id);
+        if ("WORKOUT".equals(type)) {
+            content.setSets(3);
+            content.setReps("8-12");
+            content.setRestTimeSeconds(30);
+        }
+        content.setUploadDate(LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365)));
+        content.setDetails(DETAILS);
+        return content;
+    }
+
+    static User user(long id, Random random) {
+        User user = new User();
+        user.setId(id);
+        user.setFullName("User " + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ0v5nFQm0Q8m8rK1uC4yZf8cQe1Hk2W");
+        user.setDateOfBirth(LocalDate.of(1980 + random.nextInt(25), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        user.setGender(random.nextBoolean() ? "MALE" : "FEMALE");
+        user.setRole("USER");
+        user.setPremium(random.nextInt(5) == 0);
+        user.setBio("Training for a half marathon and studying for finals.");
+        user.setWeight(50 + random.nextInt(50) + 0.5);
+        user.setHeight(150 + random.nextInt(45) + 0.5);
+        user.setJoinDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(600)));
+        return user;
+    }
+}
@@ -0,0 +1,85 @@
+package jar.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jar.dto.PaymentSummary;
+import jar.model.ActivityLog;
+import jar.model.Content;
+import jar.model.Payment;
+import jar.model.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of writing the list payloads the controllers return, at catalog/admin-list sizes.
+// The mapper is built the same way Spring Boot builds the application's one.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "200", "2000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Content> contents;
+    private List<User> users;
+    private List<ActivityLog> activityLogs;
+    private List<Payment> payments;
+    private List<PaymentSummary> paymentSummaries;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        contents = Fixtures.contents(size, 1);
+        users = Fixtures.users(size, 2);
+        activityLogs = Fixtures.activityLogs(size, 3);
+        payments = Fixtures.payments(size, 4);
+        paymentSummaries = payments.stream().map(PaymentSummary::from).toList();
+    }
+
+    @Benchmark
+    public byte[] contentList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(contents);
+    }
+
+    @Benchmark
+    public byte[] userList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    // Full entity graph (user + content per row), as the pre-projection history endpoint sent it
+    @Benchmark
+    public byte[] activityLogList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(activityLogs);
+    }
+
+    // Full entity graph (user + subscription + plan per row)
+    @Benchmark
+    public byte[] paymentList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payments);
+    }
+
+    // What GET /api/payments sends today, for comparison with paymentList
+    @Benchmark
+    public byte[] paymentSummaryList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paymentSummaries);
+    }
+}
@@ -0,0 +1,288 @@
+package jar.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jar.loadgen.ZipfSampler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Replays a mixed read/write workload against a running backend (normally one filled by the
+// "loadgen" profile) and reports throughput and p50/p95/p99 latency per endpoint.
+// Closed loop: each of --threads workers sends its next request as soon as the previous one
+// returns. User and content ids are drawn from the same Zipf skew the generator used.
+//
+//   mvn compile exec:java@load \
+//       -Dload.args="--base-url=http://localhost:8080 --threads=32 --duration=60 --users=1000000 --content=10000"
+//
+// A JSON copy of the report goes to target/load-results/<timestamp>.json.
+public class LoadDriver {
+
+    private static final String PASSWORD = "password123";
+
+    // Endpoint mix, as relative weights
+    private static final Map<String, Integer> MIX = mix();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private final String baseUrl;
+    private final ZipfSampler users;
+    private final ZipfSampler content;
+    private final long firstUserId;
+    private final long firstContentId;
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+
+    private LoadDriver(String baseUrl, int userCount, long firstUserId, int contentCount, long firstContentId, double exponent) {
+        this.baseUrl = baseUrl;
+        this.users = new ZipfSampler(userCount, exponent);
+        this.content = new ZipfSampler(contentCount, exponent);
+        this.firstUserId = firstUserId;
+        this.firstContentId = firstContentId;
+        this.operations = MIX.keySet().toArray(String[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += MIX.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+
+        LoadDriver driver = new LoadDriver(
+                options.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("users", "1000000")),
+                Long.parseLong(options.getOrDefault("first-user-id", "1")),
+                Integer.parseInt(options.getOrDefault("content", "10000")),
+                Long.parseLong(options.getOrDefault("first-content-id", "1")),
+                Double.parseDouble(options.getOrDefault("zipf-exponent", "1.05")));
+
+        System.out.printf("Warming up for %d s with %d threads...%n", warmup, threads);
+        driver.run(threads, warmup, 1);
+        System.out.printf("Measuring for %d s...%n", duration);
+        Map<String, Recorder> results = driver.run(threads, duration, 2);
+
+        Map<String, Object> report = driver.report(results, duration);
+        Path dir = Files.createDirectories(Path.of("target", "load-results"));
+        Path file = dir.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("Report written to " + file);
+    }
+
+    private Map<String, Recorder> run(int threads, int seconds, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Map<String, Recorder>> perWorker = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            Map<String, Recorder> recorders = new HashMap<>();
+            perWorker.add(recorders);
+            SplittableRandom random = new SplittableRandom(seed * 1000 + t);
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    String operation = pick(random);
+                    long start = System.nanoTime();
+                    boolean ok = send(operation, random);
+                    recorders.computeIfAbsent(operation, k -> new Recorder()).record(System.nanoTime() - start, ok);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+        Map<String, Recorder> merged = new LinkedHashMap<>();
+        for (String operation : operations) {
+            Recorder total = new Recorder();
+            perWorker.forEach(recorders -> {
+                Recorder r = recorders.get(operation);
+                if (r != null) {
+                    total.addAll(r);
+                }
+            });
+            merged.put(operation, total);
+        }
+        return merged;
+    }
+
+    private String pick(SplittableRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    // Ids follow the generator's layout: a contiguous block starting at --first-user-id /
+    // --first-content-id (1 on an empty database), lowest ids most active
+    private boolean send(String operation, SplittableRandom random) {
+        long userId = firstUserId + users.next(random);
+        long contentId = firstContentId + content.next(random);
+        HttpRequest request = switch (operation) {
+            case "GET /api/content" -> get("/api/content");
+            case "GET /api/content/find" -> get("/api/content/find?q=" + new String[] {"core", "protein", "focus", "sprnt", "memory"}[random.nextInt(5)]);
+            case "GET /api/users/{id}/stats" -> get("/api/users/" + userId + "/stats");
+            case "GET /api/activity/user/{id}" -> get("/api/activity/user/" + userId);
+            case "POST /api/activity" -> post("/api/activity",
+                    "{\"userId\":" + userId + ",\"contentId\":" + contentId + ",\"status\":\"COMPLETED\"}");
+            case "POST /api/users/login" -> post("/api/users/login",
+                    "{\"email\":\"load" + userId + "@iqfit.test\",\"password\":\"" + PASSWORD + "\"}");
+            case "POST /api/messages" -> post("/api/messages",
+                    "{\"name\":\"Load User " + userId + "\",\"email\":\"load" + userId + "@iqfit.test\",\"message\":\"Load test message\"}");
+            case "POST /api/payments/pay" -> post("/api/payments/pay",
+                    "{\"userId\":" + userId + ",\"planId\":2,\"amount\":12.99,\"paymentMethod\":\"GCash\"}");
+            default -> throw new IllegalStateException(operation);
+        };
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept-Encoding", "gzip")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private Map<String, Object> report(Map<String, Recorder> results, int seconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long totalRequests = 0;
+
+        System.out.printf("%n%-30s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Recorder> entry : results.entrySet()) {
+            Recorder r = entry.getValue();
+            long[] sorted = r.sorted();
+            double throughput = (double) sorted.length / seconds;
+            totalRequests += sorted.length;
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", sorted.length);
+            row.put("errors", r.errors);
+            row.put("throughput", throughput);
+            row.put("p50Ms", percentile(sorted, 0.50));
+            row.put("p95Ms", percentile(sorted, 0.95));
+            row.put("p99Ms", percentile(sorted, 0.99));
+            row.put("maxMs", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+            endpoints.put(entry.getKey(), row);
+
+            System.out.printf("%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), sorted.length, r.errors,
+                    throughput, row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs"));
+        }
+        System.out.printf("%-30s %9d %7s %9.1f%n%n", "total", totalRequests, "", (double) totalRequests / seconds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl);
+        report.put("durationSeconds", seconds);
+        report.put("throughput", (double) totalRequests / seconds);
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> mix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("GET /api/content", 25);
+        mix.put("GET /api/content/find", 10);
+        mix.put("GET /api/users/{id}/stats", 15);
+        mix.put("GET /api/activity/user/{id}", 20);
+        mix.put("POST /api/activity", 20);
+        mix.put("POST /api/messages", 5);
+        mix.put("POST /api/users/login", 3);
+        mix.put("POST /api/payments/pay", 2);
+        return mix;
+    }
+
+    // Latencies in nanoseconds for one endpoint; owned by a single worker until merged
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package jar.benchmarks;
+
+import jar.BackendApplication;
+import jar.dto.ActivityHistoryItem;
+import jar.model.ActivityLog;
+import jar.model.Content;
+import jar.dto.PaymentSummary;
+import jar.model.Plan;
+import jar.model.User;
+import jar.model.UserActivityStats;
+import jar.repository.ActivityLogRepository;
+import jar.repository.ContentRepository;
+import jar.repository.PlanRepository;
+import jar.repository.UserRepository;
+import jar.service.ContentCatalogCache;
+import jar.service.PaymentService;
+import jar.service.UserStatsService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The data access behind GET /api/users/{id}/stats, GET /api/activity/user/{id} and
+// POST /api/payments/pay, run against the real application context on an in-memory H2
+// seeded with `users` users and `logsPerUser` activity rows each. Every invocation picks a
+// random seeded user, so results reflect index lookups rather than one hot row.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int SEED_CHUNK = 1000;
+    private static final Pageable HISTORY_PAGE = PageRequest.of(0, 20);
+    private static final double PAID_PLAN_PRICE = 12.99;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"50"})
+    public int logsPerUser;
+
+    @Param({"200"})
+    public int contentItems;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private PlanRepository planRepository;
+    private ActivityLogRepository activityLogRepository;
+    private UserStatsService userStatsService;
+    private PaymentService paymentService;
+
+    private long firstUserId;
+    private long lastUserId;
+    private Long paidPlanId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+
+        userRepository = context.getBean(UserRepository.class);
+        planRepository = context.getBean(PlanRepository.class);
+        activityLogRepository = context.getBean(ActivityLogRepository.class);
+        userStatsService = context.getBean(UserStatsService.class);
+        paymentService = context.getBean(PaymentService.class);
+
+        seed();
+
+        paidPlanId = planRepository.findAll().stream()
+                .filter(plan -> plan.getPrice() != null && plan.getPrice() > 0)
+                .map(Plan::getId)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserActivityStats getUserStats() {
+        return userStatsService.getStats(randomUserId());
+    }
+
+    // The grouped count getUserStats used before user_activity_stats (still its fallback)
+    @Benchmark
+    public List<Object[]> getUserStatsFromLogs() {
+        return activityLogRepository.countCompletedByContentType(randomUserId());
+    }
+
+    @Benchmark
+    public List<ActivityHistoryItem> getUserHistory() {
+        return activityLogRepository.findHistoryFirstPage(randomUserId(), HISTORY_PAGE);
+    }
+
+    // The single-transaction flow behind POST /api/payments/pay (no idempotency key)
+    @Benchmark
+    public PaymentSummary makePayment() {
+        return paymentService.pay(randomUserId(), paidPlanId, PAID_PLAN_PRICE, "GCash", null).payment();
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(firstUserId, lastUserId + 1);
+    }
+
+    // Users and content through the repositories, activity logs in chunked batch inserts,
+    // then the stats table rebuilt from the logs the same way POST /api/users/stats/rebuild does
+    private void seed() {
+        Random random = new Random(42);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        ContentRepository contentRepository = context.getBean(ContentRepository.class);
+
+        List<Content> contents = new ArrayList<>(contentItems);
+        for (int i = 0; i < contentItems; i++) {
+            Content content = Fixtures.content(0, random);
+            content.setId(null);
+            contents.add(content);
+        }
+        List<Content> savedContents = tx.execute(status -> contentRepository.saveAll(contents));
+        context.getBean(ContentCatalogCache.class).refresh();
+
+        List<Long> userIds = new ArrayList<>(users);
+        for (int from = 0; from < users; from += SEED_CHUNK) {
+            List<User> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(users, from + SEED_CHUNK); i++) {
+                User user = Fixtures.user(i, random);
+                user.setId(null);
+                user.setEmail("bench" + i + "@example.com");
+                chunk.add(user);
+            }
+            tx.execute(status -> userRepository.saveAll(chunk)).forEach(user -> userIds.add(user.getId()));
+        }
+        firstUserId = userIds.get(0);
+        lastUserId = userIds.get(userIds.size() - 1);
+
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        for (Long userId : userIds) {
+            tx.executeWithoutResult(status -> {
+                User user = userRepository.getReferenceById(userId);
+                List<ActivityLog> logs = new ArrayList<>(logsPerUser);
+                for (int i = 0; i < logsPerUser; i++) {
+                    ActivityLog log = new ActivityLog();
+                    log.setUser(user);
+                    log.setContent(contentRepository.getReferenceById(savedContents.get(random.nextInt(savedContents.size())).getId()));
+                    log.setStatus(random.nextInt(4) == 0 ? "STARTED" : "COMPLETED");
+                    log.setDateAccessed(start.plusMinutes(random.nextInt(525_600)));
+                    logs.add(log);
+                }
+                activityLogRepository.saveAll(logs);
+            });
+        }
+
+        userStatsService.rebuildAll(SEED_CHUNK);
+    }
+}
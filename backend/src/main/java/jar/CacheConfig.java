@@ -0,0 +1,76 @@
+package jar;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Hibernate second-level cache on Caffeine (through JCache).
+// Regions, sized and expired from application.properties:
+//   plans, content          reference data (Plan, Content entities), iqfit.cache.reference.*
+//   users                   User entities, short-lived, iqfit.cache.users.*
+//   query results           cacheable repository queries (the plan list; catalog reads are
+//                           served by ContentCatalogCache instead)
+//   update timestamps       never expires, so the query cache always sees the latest table writes
+// Hit/miss counts come out as the hibernate.second.level.cache.* and hibernate.cache.query.*
+// Actuator metrics (statistics are already on).
+@Configuration
+public class CacheConfig {
+
+    public static final String PLANS = "plans";
+    public static final String CONTENT = "content";
+    public static final String USERS = "users";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${iqfit.cache.reference.max-entries:10000}") long referenceEntries,
+            @Value("${iqfit.cache.reference.ttl-seconds:3600}") long referenceTtl,
+            @Value("${iqfit.cache.users.max-entries:50000}") long userEntries,
+            @Value("${iqfit.cache.users.ttl-seconds:60}") long userTtl,
+            @Value("${iqfit.cache.queries.max-entries:1000}") long queryEntries) {
+        // A private manager per context, so test contexts in the same JVM never share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("iqfit-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(PLANS, region(referenceEntries, referenceTtl));
+        cacheManager.createCache(CONTENT, region(referenceEntries, referenceTtl));
+        cacheManager.createCache(USERS, region(userEntries, userTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queryEntries, referenceTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(0, 0));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Every region is created above; a missing one is a mapping mistake
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    // maxEntries / ttlSeconds of 0 mean unbounded / no expiry
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+        if (maxEntries > 0) {
+            config.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (ttlSeconds > 0) {
+            config.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        config.setStatisticsEnabled(true);
+        return config;
+    }
+}
@@ -1,22 +1,29 @@
 package jar;
 
-import jar.model.Content;
+import jar.dto.ContentImportResult;
 import jar.model.Plan;
 import jar.model.User;
 import jar.repository.ContentRepository;
 import jar.repository.PlanRepository;
 import jar.repository.UserRepository;
+import jar.service.ContentImportService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+
 @Component
 public class DataLoader implements CommandLineRunner {
 
     @Autowired
     private ContentRepository contentRepository;
 
+    @Autowired
+    private ContentImportService contentImportService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -28,19 +35,12 @@ public class DataLoader implements CommandLineRunner {
         System.out.println("⏳ Checking for seed data...");
 
         // --- 1. Load Content ---
+        // The seed catalog is NDJSON in the same format as POST /api/content/bulk
         if (contentRepository.count() == 0) {
-            // ... (Your existing content loading logic remains here if you have it)
-            // For brevity, ensuring we have at least one workout
-            Content workout = new Content();
-            workout.setTitle("Morning HIIT Blast");
-            workout.setDescription("High intensity interval training.");
-            workout.setContentType("WORKOUT");
-            workout.setCategory("Cardio");
-            workout.setDifficultyLevel("INTERMEDIATE");
-            workout.setDurationMinutes(15);
-            workout.setAccessLevel("PREMIUM");
-            contentRepository.save(workout);
-            System.out.println("✅ Content loaded");
+            try (InputStream seed = new ClassPathResource("seed/content.ndjson").getInputStream()) {
+                ContentImportResult result = contentImportService.importNdjson(seed);
+                System.out.println("✅ Content loaded (" + result.inserted() + " items)");
+            }
         }
 
         // --- 2. Load Membership Plans (UPDATED) ---
@@ -0,0 +1,90 @@
+package jar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+// Tables whose ids come from the pooled "id_generators" table used to be AUTO_INCREMENT.
+// Before the app takes traffic, push each generator past the table's current MAX(id)
+// so new ids never collide with rows written under the old strategy (or by bulk loaders).
+// Bulk loaders that write explicit ids while the app runs take a block with reserve() instead:
+// Hibernate may already hold a pool of ids just below next_val, so MAX(id) + 1 is not free.
+@Component
+public class IdGeneratorAligner implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorAligner.class);
+
+    // Must match the @TableGenerator declarations on the entities
+    static final String GENERATOR_TABLE = "id_generators";
+    static final int ALLOCATION_SIZE = 50;
+
+    // gen_name -> table it generates ids for
+    private static final Map<String, String> GENERATORS = Map.of(
+            "activity_logs", "activity_logs",
+            "subscriptions", "subscriptions",
+            "payments", "payments",
+            "content", "content",
+            "messages", "messages");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        alignAll();
+    }
+
+    public void alignAll() {
+        GENERATORS.forEach(this::align);
+    }
+
+    // Reserves count ids of a generator for explicit-id inserts; the caller uses base + 1 .. base + count.
+    // The block starts above both MAX(id) and next_val (Hibernate's pooled optimizer only hands out ids
+    // below the next_val it last read), and next_val moves far enough past it that the next pool
+    // (next_val - ALLOCATION_SIZE + 1 .. next_val) cannot overlap it.
+    public long reserve(String generatorName, long count) {
+        String table = GENERATORS.get(generatorName);
+        if (table == null) {
+            throw new IllegalArgumentException("Unknown id generator: " + generatorName);
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            align(generatorName, table);
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT next_val FROM " + GENERATOR_TABLE + " WHERE gen_name = ? FOR UPDATE", Long.class, generatorName);
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long base = Math.max(next, maxId);
+            jdbcTemplate.update("UPDATE " + GENERATOR_TABLE + " SET next_val = ? WHERE gen_name = ?",
+                    base + count + ALLOCATION_SIZE + 1, generatorName);
+            return base;
+        });
+    }
+
+    private void align(String generatorName, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long target = maxId + ALLOCATION_SIZE + 1;
+
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT next_val FROM " + GENERATOR_TABLE + " WHERE gen_name = ?", Long.class, generatorName);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO " + GENERATOR_TABLE + " (gen_name, next_val) VALUES (?, ?)",
+                    generatorName, target);
+        } else if (current.get(0) < target) {
+            jdbcTemplate.update("UPDATE " + GENERATOR_TABLE + " SET next_val = ? WHERE gen_name = ? AND next_val < ?",
+                    target, generatorName, target);
+        } else {
+            return;
+        }
+        log.info("Id generator '{}' moved to {} (max {}.id = {})", generatorName, target, table, maxId);
+    }
+}
@@ -0,0 +1,10 @@
+package jar;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Turns on @Scheduled methods and the auto-configured TaskScheduler used by background jobs
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,87 @@
+package jar.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Concurrency limit for one group of endpoints.
+// At most maxConcurrent requests run at once; up to maxQueue more wait (FIFO) for at most
+// maxWaitMs, and anything beyond that is rejected straight away so callers can answer 503.
+// Metrics (tag group): iqfit.bulkhead.in-flight and .queued gauges, .rejected counter,
+// .wait timer.
+public class Bulkhead {
+
+    private final String name;
+    private final Semaphore permits;
+    private final int maxQueue;
+    private final long maxWaitMs;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private final Timer waits;
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxQueue = maxQueue;
+        this.maxWaitMs = maxWaitMs;
+        Gauge.builder("iqfit.bulkhead.in-flight", inFlight, AtomicInteger::get)
+                .description("Requests currently holding a bulkhead permit")
+                .tag("group", name)
+                .register(meterRegistry);
+        Gauge.builder("iqfit.bulkhead.queued", queued, AtomicInteger::get)
+                .description("Requests waiting for a bulkhead permit")
+                .tag("group", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("iqfit.bulkhead.rejected")
+                .description("Requests shed because the bulkhead was full")
+                .tag("group", name)
+                .register(meterRegistry);
+        this.waits = Timer.builder("iqfit.bulkhead.wait")
+                .description("Time spent waiting for a bulkhead permit")
+                .tag("group", name)
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // True when a permit was obtained; the caller must release() it exactly once
+    public boolean tryAcquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            inFlight.incrementAndGet();
+            waits.record(0, TimeUnit.NANOSECONDS);
+            return true;
+        }
+        if (maxWaitMs <= 0 || queued.incrementAndGet() > maxQueue) {
+            if (maxWaitMs > 0) {
+                queued.decrementAndGet();
+            }
+            rejected.increment();
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                inFlight.incrementAndGet();
+                return true;
+            }
+            rejected.increment();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+            waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        permits.release();
+    }
+}
@@ -0,0 +1,188 @@
+package jar.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Per-endpoint-group bulkheads, so one hot or slow group cannot take every request thread
+// and every pooled connection from the rest:
+//   auth             signup and login
+//   content-reads    catalog, search, plans, recommendations
+//   activity-writes  activity logging
+//   admin            exports, bulk import, archive, purge, rebuilds, backfills and the paged admin lists
+// Everything else is not limited. Each group is configured with
+// iqfit.bulkheads.<group>.max-concurrent / max-queue / max-wait-ms; a request that cannot get a
+// permit in time is answered 503 with Retry-After. For async requests (login, streaming exports)
+// the permit is held until the async work completes.
+//
+// Queued requests wait on their request thread (a platform thread on the Java 17 target), so a
+// group can tie up at most max-concurrent + max-queue Tomcat workers. Startup fails unless the
+// groups together leave iqfit.bulkheads.reserved-threads of server.tomcat.threads.max free, so a
+// flood on one group cannot take the workers the other groups and the unlimited endpoints need.
+@Component
+@ConditionalOnProperty(name = "iqfit.bulkheads.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    // First match wins; a null method matches any method
+    private static final List<Route> ROUTES = List.of(
+            new Route("POST", "/api/users/login", "auth"),
+            new Route("POST", "/api/users", "auth"),
+            new Route(null, "/api/*/export", "admin"),
+            new Route(null, "/api/activity/archive/**", "admin"),
+            new Route("POST", "/api/content/bulk", "admin"),
+            new Route(null, "/api/users/purge", "admin"),
+            new Route(null, "/api/users/stats/rebuild", "admin"),
+            new Route(null, "/api/payments/analytics/backfill", "admin"),
+            new Route("GET", "/api/*/page", "admin"),
+            new Route("POST", "/api/activity/**", "activity-writes"),
+            new Route("GET", "/api/content/**", "content-reads"),
+            new Route("GET", "/api/plans/**", "content-reads"),
+            new Route("GET", "/api/users/*/recommendations", "content-reads"));
+
+    private record Route(String method, String pattern, String group) {
+        boolean matches(HttpServletRequest request) {
+            return (method == null || method.equals(request.getMethod()))
+                    && PATHS.match(pattern, request.getRequestURI());
+        }
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() {
+        int threadsHeld = 0;
+        for (Route route : ROUTES) {
+            if (!bulkheads.containsKey(route.group())) {
+                String group = route.group();
+                int maxConcurrent = setting(group, "max-concurrent", 16);
+                int maxQueue = setting(group, "max-queue", 16);
+                bulkheads.put(group, new Bulkhead(group, maxConcurrent, maxQueue,
+                        setting(group, "max-wait-ms", 500), meterRegistry));
+                threadsHeld += maxConcurrent + maxQueue;
+            }
+        }
+
+        int workers = environment.getProperty("server.tomcat.threads.max", Integer.class, 200);
+        int reserved = environment.getProperty("iqfit.bulkheads.reserved-threads", Integer.class, 50);
+        if (threadsHeld > workers - reserved) {
+            throw new IllegalStateException("Bulkheads can hold " + threadsHeld + " request threads (max-concurrent"
+                    + " + max-queue over all groups), but only " + (workers - reserved) + " of the " + workers
+                    + " Tomcat workers may be used (" + reserved + " reserved); lower the iqfit.bulkheads.* limits");
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = bulkheadFor(request);
+        if (bulkhead == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType("text/plain");
+            response.getWriter().write("Too many concurrent " + bulkhead.name() + " requests, please retry");
+            return;
+        }
+
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(bulkhead));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private Bulkhead bulkheadFor(HttpServletRequest request) {
+        for (Route route : ROUTES) {
+            if (route.matches(request)) {
+                return bulkheads.get(route.group());
+            }
+        }
+        return null;
+    }
+
+    private int setting(String group, String key, int defaultValue) {
+        return environment.getProperty("iqfit.bulkheads." + group + "." + key, Integer.class, defaultValue);
+    }
+
+    // Releases the permit once, whichever way the async request ends
+    private static final class ReleaseOnComplete implements AsyncListener {
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnComplete(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+}
@@ -1,51 +1,164 @@
 package jar.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import jar.model.ActivityLog;
-import jar.model.Content;
-import jar.model.User;
+import jar.dto.ActivityEvent;
+import jar.dto.ActivityHistoryItem;
+import jar.dto.ActivityHistoryPage;
 import jar.repository.ActivityLogRepository;
-import jar.repository.ContentRepository;
-import jar.repository.UserRepository;
+import jar.dto.ActivityExportRow;
+import jar.service.ActivityArchiveStore;
+import jar.service.ActivityIngestService;
+import jar.service.ActivityRetentionService;
+import jar.service.ExportService;
 
+import java.time.LocalDate;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/activity")
 @CrossOrigin(origins = "http://localhost:3000")
 public class ActivityLogController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_ARCHIVE_DAYS = 366;
+    private static final int MAX_ARCHIVE_ROWS = 5000;
+
     @Autowired
     private ActivityLogRepository activityLogRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ActivityIngestService activityIngestService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ActivityRetentionService activityRetentionService;
 
     @Autowired
-    private ContentRepository contentRepository;
+    private ActivityArchiveStore activityArchiveStore;
 
     // 1. Log an activity (e.g., User 1 completed Workout 5)
+    // The dashboard counters are bumped in the same transaction as the insert.
+    // In write-behind mode the event is only queued: 202 when accepted, 503 when the buffer is full.
     @PostMapping
-    public ActivityLog logActivity(@RequestBody LogRequest request) {
-        ActivityLog log = new ActivityLog();
-        
-        // Find the actual User and Content objects from the database
-        User user = userRepository.findById(request.getUserId()).orElseThrow();
-        Content content = contentRepository.findById(request.getContentId()).orElseThrow();
-        
-        log.setUser(user);
-        log.setContent(content);
-        log.setStatus(request.getStatus());
-        
-        return activityLogRepository.save(log);
+    public ResponseEntity<?> logActivity(@RequestBody LogRequest request) {
+        ActivityEvent event = request.toEvent();
+        try {
+            if (activityIngestService.isWriteBehindEnabled()) {
+                if (!activityIngestService.enqueue(event)) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .body("Activity buffer is full, please retry");
+                }
+                return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+            }
+            return ResponseEntity.ok(activityIngestService.persist(List.of(event)).get(0));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // 1b. Log many activities at once (e.g., a whole routine finished offline).
+    // All events are written in one transaction as JDBC batches; one bad id rejects the lot.
+    @PostMapping("/batch")
+    public ResponseEntity<?> logActivityBatch(@RequestBody List<LogRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_SIZE + " activities per batch");
+        }
+        try {
+            List<ActivityEvent> events = requests.stream().map(LogRequest::toEvent).toList();
+            int recorded = activityIngestService.persist(events).size();
+            Map<String, Integer> result = new HashMap<>();
+            result.put("recorded", recorded);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // 1c. Support export (?format=ndjson|csv&userId=&from=&to=&gzip=), streamed from a database
+    // cursor so memory use stays flat however large activity_logs grows
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportActivity(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            return exportService.activity(ExportService.Format.parse(format), userId, from, to, gzip);
+        } catch (IllegalArgumentException e) {
+            return ExportService.badRequest(e.getMessage());
+        }
     }
 
-    // 2. Get history for a specific user
+    // 1d. Archived history (rows the retention job moved out of activity_logs), read from the
+    // compressed day files for [from, to]. Scans whole days, so the range is capped.
+    @GetMapping("/archive")
+    public ResponseEntity<?> getArchivedActivity(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "1000") int limit) throws IOException {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_ARCHIVE_DAYS) {
+            return ResponseEntity.badRequest().body("from..to must span 1-" + MAX_ARCHIVE_DAYS + " days");
+        }
+        List<ActivityExportRow> rows = activityArchiveStore.read(from, to, userId,
+                Math.min(Math.max(limit, 1), MAX_ARCHIVE_ROWS));
+        return ResponseEntity.ok(rows);
+    }
+
+    // 1e. Admin: run the retention job now instead of waiting for its nightly schedule
+    @PostMapping("/archive/run")
+    public ResponseEntity<?> runRetention() {
+        long archived = activityRetentionService.archiveExpired();
+        if (archived < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Retention job is already running");
+        }
+        Map<String, Long> result = new HashMap<>();
+        result.put("archived", archived);
+        return ResponseEntity.ok(result);
+    }
+
+    // 2. Get history for a specific user, newest first, one page at a time.
+    // First call without a cursor; then pass back nextCursorDate/nextCursorId from the previous page.
     @GetMapping("/user/{userId}")
-    public List<ActivityLog> getUserHistory(@PathVariable Long userId) {
-        return activityLogRepository.findByUserId(userId);
+    public ActivityHistoryPage getUserHistory(@PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<ActivityHistoryItem> rows = (cursorDate == null || cursorId == null)
+                ? activityLogRepository.findHistoryFirstPage(userId, limit)
+                : activityLogRepository.findHistoryPageAfter(userId, cursorDate, cursorId, limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ActivityHistoryItem> items = hasMore ? rows.subList(0, pageSize) : rows;
+        ActivityHistoryItem last = hasMore ? items.get(items.size() - 1) : null;
+
+        return new ActivityHistoryPage(items,
+                last != null ? last.dateAccessed() : null,
+                last != null ? last.id() : null,
+                hasMore);
     }
 }
 
@@ -63,4 +176,6 @@ class LogRequest {
     public void setContentId(Long contentId) { this.contentId = contentId; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+
+    ActivityEvent toEvent() { return new ActivityEvent(userId, contentId, status, LocalDateTime.now()); }
 }
\ No newline at end of file
@@ -1,37 +1,109 @@
 package jar.controller;
 
+import jar.dto.ContentImportResult;
+import jar.dto.ContentSearchResult;
 import jar.model.Content;
 import jar.repository.ContentRepository;
+import jar.service.ContentCatalogCache;
+import jar.service.ContentImportService;
+import jar.service.ContentSearchIndex;
+import jar.service.ExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/content")
 @CrossOrigin(origins = "http://localhost:3000")
 public class ContentController {
 
+    private static final String GZIP_ETAG_SUFFIX = "-gz\"";
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     @Autowired
     private ContentRepository contentRepository;
 
+    @Autowired
+    private ContentCatalogCache contentCatalogCache;
+
+    @Autowired
+    private ContentSearchIndex contentSearchIndex;
+
+    @Autowired
+    private ContentImportService contentImportService;
+
+    @Autowired
+    private ExportService exportService;
+
+    // Catalog reads are served from the in-memory snapshot (see ContentCatalogCache)
     @GetMapping
-    public List<Content> getAllContent() {
-        return contentRepository.findAll();
+    public ResponseEntity<byte[]> getAllContent(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponse(contentCatalogCache.all(), ifNoneMatch, acceptEncoding);
     }
 
     @PostMapping
     public Content addContent(@RequestBody Content content) {
-        return contentRepository.save(content);
+        Content saved = contentRepository.save(content);
+        contentCatalogCache.put(saved);
+        contentSearchIndex.index(saved);
+        return saved;
     }
     
+    // Bulk import: an NDJSON body (optionally Content-Encoding: gzip), one item per line, upserted
+    // by (contentType, title). Answers with counts and per-line errors (see ContentImportService).
+    @PostMapping("/bulk")
+    public ContentImportResult importContent(InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding)
+            throws IOException {
+        InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+        return contentImportService.importNdjson(in);
+    }
+
+    // Catalog export (?format=ndjson|csv&gzip=), streamed from a database cursor; the NDJSON
+    // output can be fed straight back into /bulk in another environment
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportContent(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            return exportService.content(ExportService.Format.parse(format), gzip);
+        } catch (IllegalArgumentException e) {
+            return ExportService.badRequest(e.getMessage());
+        }
+    }
+
     @GetMapping("/search")
-    public List<Content> searchByType(@RequestParam String type) {
-        return contentRepository.findByContentType(type);
+    public ResponseEntity<byte[]> searchByType(@RequestParam String type,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponse(contentCatalogCache.byType(type), ifNoneMatch, acceptEncoding);
+    }
+
+    // Full-text search over the in-memory index (?q=&type=&category=&difficulty=&limit=)
+    @GetMapping("/find")
+    public ContentSearchResult findContent(@RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(defaultValue = "20") int limit) {
+        return contentSearchIndex.search(q, type, category, difficulty, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
     @DeleteMapping("/{id}")
     public void deleteContent(@PathVariable Long id) {
         contentRepository.deleteById(id);
+        contentCatalogCache.evict(id);
+        contentSearchIndex.remove(id);
     }
 
     // --- NEW: EDIT CONTENT ---
@@ -58,6 +130,68 @@ public class ContentController {
         content.setDetails(contentDetails.getDetails());
         // -----------
 
-        return contentRepository.save(content);
+        Content saved = contentRepository.save(content);
+        contentCatalogCache.put(saved);
+        contentSearchIndex.index(saved);
+        return saved;
+    }
+
+    // Writes a cached payload, answering 304 when the client already has this version.
+    // The gzip body gets its own strong ETag since its bytes differ from the plain JSON.
+    private ResponseEntity<byte[]> catalogResponse(ContentCatalogCache.Payload payload,
+            String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? payload.etag().replaceFirst("\"$", GZIP_ETAG_SUFFIX) : payload.etag();
+
+        if (matches(ifNoneMatch, payload.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return !(parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?"));
+            }
+        }
+        return false;
+    }
+
+    // If-None-Match uses weak comparison, and either encoding's tag identifies the same catalog
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals(etag.replaceFirst("\"$", GZIP_ETAG_SUFFIX))) {
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
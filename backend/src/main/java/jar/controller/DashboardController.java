@@ -0,0 +1,34 @@
+package jar.controller;
+
+import jar.dto.DashboardSnapshot;
+import jar.service.DashboardService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "http://localhost:3000")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    // Current totals (same as the stream's first event), from memory
+    @GetMapping
+    public DashboardSnapshot getSnapshot() {
+        return dashboardService.snapshot();
+    }
+
+    // Live counters for the admin dashboard: one "snapshot" event, then coalesced "delta" events
+    // (see DashboardService). Use with EventSource instead of polling the full lists.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return dashboardService.subscribe();
+    }
+}
@@ -0,0 +1,38 @@
+package jar.controller;
+
+import jar.service.LeaderboardService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "http://localhost:3000")
+public class LeaderboardController {
+
+    private static final int MAX_ENTRIES = 100;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    // Weekly leaderboard by completed activities, served from memory.
+    // week is an ISO week ("2025-W07") or a date inside it; defaults to the current week.
+    @GetMapping
+    public ResponseEntity<?> getLeaderboard(@RequestParam(required = false) String week,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDate day;
+        try {
+            day = LeaderboardService.parseWeek(week);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok(leaderboardService.leaderboard(day, Math.min(Math.max(limit, 1), MAX_ENTRIES)));
+    }
+}
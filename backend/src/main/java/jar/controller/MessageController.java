@@ -2,9 +2,22 @@ package jar.controller;
 
 import jar.model.Message;
 import jar.repository.MessageRepository;
+import jar.repository.MessageSpecifications;
+import jar.service.DashboardService;
+import jar.service.MessageIngestService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -15,24 +28,64 @@ public class MessageController {
     @Autowired
     private MessageRepository messageRepository;
 
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private MessageIngestService messageIngestService;
+
     // 1. Send a Message (Public)
+    // Rate limited per client and per email, deduplicated and inserted in batches (see MessageIngestService):
+    // 202 when accepted or a repeat of a recent message, 429 when rate limited, 503 when the buffer is full.
+    // The client is the remote address; behind a proxy set server.forward-headers-strategy so it is the real one.
     @PostMapping
-    public Message sendMessage(@RequestBody Message message) {
-        return messageRepository.save(message);
+    public ResponseEntity<?> sendMessage(@RequestBody Message message, HttpServletRequest request) {
+        MessageIngestService.Result result;
+        try {
+            result = messageIngestService.submit(message, request.getRemoteAddr());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return switch (result.outcome()) {
+            case ACCEPTED, DUPLICATE -> ResponseEntity.status(HttpStatus.ACCEPTED).build();
+            case BUFFER_FULL -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(result.retryAfterSeconds()))
+                    .body("Too many messages right now, please retry");
+            default -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(result.retryAfterSeconds()))
+                    .body("Too many messages, try again later");
+        };
     }
 
     // 2. Read Messages (Admin Only - Frontend will handle security check)
     @GetMapping
     public List<Message> getAllMessages() {
-        // Sort by newest first
-        List<Message> messages = messageRepository.findAll();
-        messages.sort((a, b) -> b.getDateSent().compareTo(a.getDateSent()));
-        return messages;
+        // Sort by newest first (in the database, using idx_messages_date_sent)
+        return messageRepository.findAll(Sort.by(Sort.Direction.DESC, "dateSent"));
+    }
+
+    // 2b. Paged + filtered inbox for large tables (?email=&from=&to=&page=&size=&sort=)
+    // sort is limited to MessageSpecifications.SORTABLE; anything else is a 400
+    @GetMapping("/page")
+    public ResponseEntity<?> getMessagesPage(
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @PageableDefault(size = 20, sort = "dateSent", direction = Sort.Direction.DESC) Pageable pageable) {
+        String invalidSort = SortWhitelist.rejected(pageable.getSort(), MessageSpecifications.SORTABLE);
+        if (invalidSort != null) {
+            return ResponseEntity.badRequest().body(invalidSort);
+        }
+        return ResponseEntity.ok(new PagedModel<>(
+                messageRepository.findAll(MessageSpecifications.adminFilter(email, from, to), pageable)));
     }
     
     // 3. Delete Message
+    // The inbox counter only moves when a row was removed, so repeated or unknown ids leave it alone
     @DeleteMapping("/{id}")
     public void deleteMessage(@PathVariable Long id) {
-        messageRepository.deleteById(id);
+        if (messageRepository.deleteMessage(id) > 0) {
+            dashboardService.messageDeleted();
+        }
     }
 }
\ No newline at end of file
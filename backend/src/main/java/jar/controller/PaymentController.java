@@ -1,75 +1,130 @@
 package jar.controller;
 
-import jar.model.Payment;
-import jar.model.Plan;
-import jar.model.Subscription;
-import jar.model.User;
+import jar.dto.PaymentSummary;
+import jar.dto.RevenueAnalytics;
 import jar.repository.PaymentRepository;
-import jar.repository.PlanRepository;
-import jar.repository.SubscriptionRepository;
-import jar.repository.UserRepository;
+import jar.repository.PaymentSpecifications;
+import jar.service.ExportService;
+import jar.service.IdempotencyKeyReusedException;
+import jar.service.PaymentService;
+import jar.service.RevenueService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/payments")
 @CrossOrigin(origins = "http://localhost:3000")
 public class PaymentController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
     @Autowired
     private PaymentRepository paymentRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private RevenueService revenueService;
 
     @Autowired
-    private PlanRepository planRepository;
+    private PaymentService paymentService;
 
     @Autowired
-    private SubscriptionRepository subscriptionRepository;
+    private ExportService exportService;
 
     // Admin endpoint to see revenue
     @GetMapping
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    public List<PaymentSummary> getAllPayments() {
+        return paymentRepository.findAllSummaries();
+    }
+
+    // Paged + filtered revenue list (?method=&status=&userId=&from=&to=&page=&size=&sort=)
+    // sort is limited to PaymentSpecifications.SORTABLE; anything else is a 400
+    @GetMapping("/page")
+    public ResponseEntity<?> getPaymentsPage(
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @PageableDefault(size = 20, sort = "paymentDate", direction = Sort.Direction.DESC) Pageable pageable) {
+        String invalidSort = SortWhitelist.rejected(pageable.getSort(), PaymentSpecifications.SORTABLE);
+        if (invalidSort != null) {
+            return ResponseEntity.badRequest().body(invalidSort);
+        }
+        return ResponseEntity.ok(new PagedModel<>(paymentRepository
+                .findAll(PaymentSpecifications.adminFilter(method, status, userId, from, to), pageable)
+                .map(PaymentSummary::from)));
+    }
+
+    // Finance export (?format=ndjson|csv&from=&to=&gzip=), streamed from a database cursor
+    // so memory use stays flat however many payments there are
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            return exportService.payments(ExportService.Format.parse(format), from, to, gzip);
+        } catch (IllegalArgumentException e) {
+            return ExportService.badRequest(e.getMessage());
+        }
+    }
+
+    // Revenue totals, counts, per-plan/per-method breakdown and MRR for [from, to]
+    // (defaults to the last 30 days). Reads only the daily rollups in that range.
+    @GetMapping("/analytics")
+    public RevenueAnalytics getRevenueAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return revenueService.analytics(start, end);
+    }
+
+    // Admin: rebuild the revenue rollups from the payments table, one day at a time
+    @PostMapping("/analytics/backfill")
+    public Map<String, Integer> backfillRevenueRollups() {
+        Map<String, Integer> result = new HashMap<>();
+        result.put("rowsWritten", revenueService.backfill());
+        return result;
     }
 
     // THE PAYMENT LOGIC
+    // One transaction in PaymentService. Send an Idempotency-Key header to make retries safe:
+    // a repeated key returns the original payment (with Idempotent-Replayed: true) instead of paying twice.
     @PostMapping("/pay")
-    public Payment makePayment(@RequestBody PaymentRequest request) {
-        
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Plan plan = planRepository.findById(request.getPlanId())
-                .orElseThrow(() -> new RuntimeException("Plan not found"));
-
-        // 1. Create Subscription
-        Subscription sub = new Subscription();
-        sub.setUser(user);
-        sub.setPlan(plan);
-        sub.setStartDate(LocalDate.now());
-        sub.setEndDate(LocalDate.now().plusDays(plan.getDurationDays()));
-        sub.setIsActive(true);
-        Subscription savedSub = subscriptionRepository.save(sub);
-
-        // 2. CRITICAL: Upgrade User Status to Premium
-        // This makes the 'isPremium' flag true in the database
-        user.setPremium(true);
-        userRepository.save(user);
-
-        // 3. Record Payment
-        Payment payment = new Payment();
-        payment.setUser(user);
-        payment.setSubscription(savedSub);
-        payment.setAmount(request.getAmount());
-        payment.setPaymentMethod(request.getPaymentMethod());
-        payment.setStatus("PAID");
-
-        return paymentRepository.save(payment);
+    public ResponseEntity<?> makePayment(@RequestBody PaymentRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            return ResponseEntity.badRequest().body("Idempotency-Key must be 1-" + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        try {
+            PaymentService.PaymentResult result = paymentService.pay(request.getUserId(), request.getPlanId(),
+                    request.getAmount(), request.getPaymentMethod(), idempotencyKey);
+            return ResponseEntity.ok()
+                    .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                    .body(result.payment());
+        } catch (IdempotencyKeyReusedException e) {
+            return ResponseEntity.unprocessableEntity().body(e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("The account was changed concurrently, please retry");
+        }
     }
 }
 
@@ -1,46 +1,93 @@
 package jar.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jar.dto.ContentRecommendation;
+import jar.dto.PurgeJobStatus;
+import jar.dto.UserStreak;
 import jar.model.User;
+import jar.model.UserActivityStats;
 import jar.repository.UserRepository;
-import jar.repository.ActivityLogRepository;
-import jar.repository.PaymentRepository;
-import jar.repository.SubscriptionRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import jar.repository.UserSpecifications;
+import jar.service.DashboardService;
+import jar.service.HashingSaturatedException;
+import jar.service.LeaderboardService;
+import jar.service.LoginThrottle;
+import jar.service.PasswordHashingService;
+import jar.service.PurgeJobService;
+import jar.service.RecommendationService;
+import jar.service.UserStatsService;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "http://localhost:3000")
 public class UserController {
 
+    private static final int MAX_RECOMMENDATIONS = 50;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private ActivityLogRepository activityLogRepository;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private UserStatsService userStatsService;
 
     @Autowired
-    private PaymentRepository paymentRepository;
+    private RecommendationService recommendationService;
 
     @Autowired
-    private SubscriptionRepository subscriptionRepository;
+    private LeaderboardService leaderboardService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private DashboardService dashboardService;
+
+    @Autowired
+    private PurgeJobService purgeJobService;
 
     @GetMapping
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    // Paged + filtered admin list (?role=&suspended=&premium=&joinedFrom=&joinedTo=&q=&page=&size=&sort=)
+    // sort is limited to UserSpecifications.SORTABLE; anything else is a 400
+    @GetMapping("/page")
+    public ResponseEntity<?> getUsersPage(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Boolean suspended,
+            @RequestParam(required = false) Boolean premium,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate joinedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate joinedTo,
+            @RequestParam(required = false) String q,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+        String invalidSort = SortWhitelist.rejected(pageable.getSort(), UserSpecifications.SORTABLE);
+        if (invalidSort != null) {
+            return ResponseEntity.badRequest().body(invalidSort);
+        }
+        return ResponseEntity.ok(new PagedModel<>(userRepository.findAll(
+                UserSpecifications.adminFilter(role, suspended, premium, joinedFrom, joinedTo, q), pageable)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
         return userRepository.findById(id)
@@ -48,36 +95,92 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Passwords are hashed on the dedicated hashing pool (see PasswordHashingService)
     @PostMapping
-    public User createUser(@RequestBody User user) {
+    public ResponseEntity<?> createUser(@RequestBody User user) {
+        try {
+            if (user.getPassword() != null) {
+                user.setPassword(passwordHashingService.encodeAndWait(user.getPassword()));
+            }
+        } catch (HashingSaturatedException e) {
+            return tooManyRequests(1, e.getMessage());
+        }
         long count = userRepository.count();
         String role = count == 0 ? "SUPER_ADMIN" : "USER";
         user.setRole(role);
-        if (user.getPassword() != null) {
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
-        }
         user.setPremium(false);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userStatsService.initializeFor(saved.getId());
+        dashboardService.userCreated();
+        return ResponseEntity.ok(saved);
     }
 
+    // Login does not hold a request thread while bcrypt runs: the response completes
+    // asynchronously once the hashing pool has checked the password.
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@RequestBody User loginRequest) {
-        User user = userRepository.findByEmail(loginRequest.getEmail());
+    public CompletableFuture<ResponseEntity<?>> loginUser(@RequestBody User loginRequest) {
+        String email = loginRequest.getEmail();
+        long retryAfter = loginThrottle.secondsUntilAllowed(email);
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(
+                    tooManyRequests(retryAfter, "Too many failed login attempts, try again later"));
+        }
+
+        User user = userRepository.findByEmail(email);
 
         if (user == null) {
-            return ResponseEntity.status(401).body("User not found");
+            loginThrottle.recordFailure(email);
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("User not found"));
+        }
+        if (user.getPassword() == null || loginRequest.getPassword() == null) {
+            loginThrottle.recordFailure(email);
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Invalid email or password"));
         }
 
-        if (user.getPassword() != null && passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            return ResponseEntity.ok(user);
-        } else {
-            return ResponseEntity.status(401).body("Invalid email or password");
+        try {
+            return passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())
+                    .thenApply(matches -> {
+                        if (!matches) {
+                            loginThrottle.recordFailure(email);
+                            return ResponseEntity.status(401).body("Invalid email or password");
+                        }
+                        loginThrottle.recordSuccess(email);
+                        rehashIfNeeded(user, loginRequest.getPassword());
+                        return ResponseEntity.ok(user);
+                    });
+        } catch (HashingSaturatedException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(1, e.getMessage()));
+        }
+    }
+
+    // Transparently upgrades hashes made with an older bcrypt cost (best effort, off the response path)
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
         }
+        try {
+            passwordHashingService.encode(rawPassword)
+                    .thenAccept(hash -> userRepository.updatePassword(user.getId(), hash));
+        } catch (HashingSaturatedException e) {
+            // Pool is busy; the hash will be upgraded on a later login
+        }
+    }
+
+    private ResponseEntity<?> tooManyRequests(long retryAfterSeconds, String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(message);
     }
 
+    // Deletes the user with their payments, subscriptions and activity in a background job (see PurgeJobService);
+    // 202 with the job, whose progress is at /api/users/jobs/{jobId} (the admin dashboard polls it
+    // before refreshing its lists)
     @DeleteMapping("/{id}")
-    public void deleteUser(@PathVariable Long id) {
-        userRepository.deleteById(id);
+    public ResponseEntity<?> deleteUser(@PathVariable Long id) {
+        if (!userRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return jobAccepted(purgeJobService.deleteUser(id));
     }
 
     @PutMapping("/{id}/suspend")
@@ -88,7 +191,7 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
+    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
         User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setFullName(userDetails.getFullName());
@@ -100,7 +203,11 @@ public class UserController {
         user.setHeight(userDetails.getHeight());
 
         if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+            try {
+                user.setPassword(passwordHashingService.encodeAndWait(userDetails.getPassword()));
+            } catch (HashingSaturatedException e) {
+                return tooManyRequests(1, e.getMessage());
+            }
         }
         User updatedUser = userRepository.save(user);
         return ResponseEntity.ok(updatedUser);
@@ -115,20 +222,47 @@ public class UserController {
     }
 
     // --- GET USER STATS ---
+    // Reads the single pre-aggregated user_activity_stats row
     @GetMapping("/{id}/stats")
     public ResponseEntity<Map<String, Long>> getUserStats(@PathVariable Long id) {
-        long workouts = activityLogRepository.countByUserIdAndStatusAndContentContentType(id, "COMPLETED", "WORKOUT");
-        long study = activityLogRepository.countByUserIdAndStatusAndContentContentType(id, "COMPLETED", "STUDY_TIP");
-        long recipes = activityLogRepository.countByUserIdAndStatusAndContentContentType(id, "COMPLETED", "RECIPE");
+        UserActivityStats userStats = userStatsService.getStats(id);
 
         Map<String, Long> stats = new HashMap<>();
-        stats.put("workouts", workouts);
-        stats.put("studySessions", study);
-        stats.put("recipesTried", recipes);
+        stats.put("workouts", userStats.getWorkouts());
+        stats.put("studySessions", userStats.getStudySessions());
+        stats.put("recipesTried", userStats.getRecipesTried());
 
         return ResponseEntity.ok(stats);
     } // <--- THIS BRACE WAS MISSING IN YOUR CODE
 
+    // --- GET RECOMMENDATIONS ---
+    // Served from the in-memory item-item model; PREMIUM content only for premium users
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<ContentRecommendation>> getRecommendations(@PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_RECOMMENDATIONS);
+        return userRepository.findPremiumById(id)
+                .map(premium -> ResponseEntity.ok(recommendationService.recommend(id, premium, size)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // --- GET STREAK ---
+    // Current and longest run of days with a completed activity, from memory
+    @GetMapping("/{id}/streak")
+    public UserStreak getStreak(@PathVariable Long id) {
+        return leaderboardService.streak(id);
+    }
+
+    // --- REBUILD USER STATS (Admin) ---
+    // Recomputes user_activity_stats from activity_logs in chunks of users to repair drift
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildUserStats(@RequestParam(defaultValue = "500") int chunkSize) {
+        int processed = userStatsService.rebuildAll(Math.max(1, chunkSize));
+        Map<String, Integer> result = new HashMap<>();
+        result.put("usersProcessed", processed);
+        return ResponseEntity.ok(result);
+    }
+
     // --- UPDATE ROLE (Promote/Demote) ---
     @PutMapping("/{id}/role")
     public ResponseEntity<?> updateRole(@PathVariable Long id,
@@ -162,13 +296,32 @@ public class UserController {
         }).orElse(ResponseEntity.notFound().build());
     }
 
-    // Purge all users and related data (payments, subscriptions, activity logs)
+    // Purge all users and related data (payments, subscriptions, activity logs) in a background job
     @DeleteMapping("/purge")
     public ResponseEntity<?> purgeAllUsers() {
-        paymentRepository.deleteAll();
-        subscriptionRepository.deleteAll();
-        activityLogRepository.deleteAll();
-        userRepository.deleteAll();
-        return ResponseEntity.ok("All users and related data purged");
+        return jobAccepted(purgeJobService.purgeAll());
+    }
+
+    // Purge / delete jobs, newest first (finished ones are kept for a while)
+    @GetMapping("/jobs")
+    public List<PurgeJobStatus> getPurgeJobs() {
+        return purgeJobService.list();
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<PurgeJobStatus> getPurgeJob(@PathVariable long jobId) {
+        return ResponseEntity.of(purgeJobService.status(jobId));
+    }
+
+    // Stops the job after its current chunk; what was already deleted stays deleted
+    @PostMapping("/jobs/{jobId}/cancel")
+    public ResponseEntity<PurgeJobStatus> cancelPurgeJob(@PathVariable long jobId) {
+        return ResponseEntity.of(purgeJobService.cancel(jobId));
+    }
+
+    private static ResponseEntity<PurgeJobStatus> jobAccepted(PurgeJobStatus job) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/users/jobs/" + job.id())
+                .body(job);
     }
 }
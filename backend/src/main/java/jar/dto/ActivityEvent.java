@@ -0,0 +1,7 @@
+package jar.dto;
+
+import java.time.LocalDateTime;
+
+// A single "user X started/completed content Y" event on its way into activity_logs
+public record ActivityEvent(Long userId, Long contentId, String status, LocalDateTime occurredAt) {
+}
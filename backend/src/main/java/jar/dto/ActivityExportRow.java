@@ -0,0 +1,15 @@
+package jar.dto;
+
+import java.time.LocalDateTime;
+
+// One activity_logs row as written by the streaming export (ids plus the content summary).
+// Built by a JPQL constructor expression, so no entities are loaded.
+public record ActivityExportRow(
+        Long id,
+        Long userId,
+        Long contentId,
+        String contentTitle,
+        String contentType,
+        String status,
+        LocalDateTime dateAccessed) {
+}
@@ -0,0 +1,34 @@
+package jar.dto;
+
+import jar.model.ActivityLog;
+import jar.model.Content;
+
+import java.time.LocalDateTime;
+
+// One row of a user's activity history, with just the content summary the UI needs.
+// Built directly by a JPQL constructor expression, so no User/Content entities are loaded.
+public record ActivityHistoryItem(
+        Long id,
+        String status,
+        LocalDateTime dateAccessed,
+        Long contentId,
+        String contentTitle,
+        String contentType,
+        String category,
+        Integer durationMinutes) {
+
+    // For a log whose content is already loaded in this transaction
+    public static ActivityHistoryItem from(ActivityLog log) {
+        Content content = log.getContent();
+        return new ActivityHistoryItem(log.getId(), log.getStatus(), log.getDateAccessed(),
+                content.getId(), content.getTitle(), content.getContentType(),
+                content.getCategory(), content.getDurationMinutes());
+    }
+
+    // For a log whose content is known separately (e.g. from the catalog cache)
+    public static ActivityHistoryItem from(ActivityLog log, ContentRecord content) {
+        return new ActivityHistoryItem(log.getId(), log.getStatus(), log.getDateAccessed(),
+                content.id(), content.title(), content.contentType(),
+                content.category(), content.durationMinutes());
+    }
+}
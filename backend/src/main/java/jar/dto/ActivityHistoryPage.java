@@ -0,0 +1,13 @@
+package jar.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A page of history plus the cursor for the next one.
+// Pass nextCursorDate/nextCursorId back as cursorDate/cursorId; both are null on the last page.
+public record ActivityHistoryPage(
+        List<ActivityHistoryItem> items,
+        LocalDateTime nextCursorDate,
+        Long nextCursorId,
+        boolean hasMore) {
+}
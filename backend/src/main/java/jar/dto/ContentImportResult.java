@@ -0,0 +1,17 @@
+package jar.dto;
+
+import java.util.List;
+
+// Outcome of a bulk content import. lines counts non-blank input lines; errors lists the
+// rejected ones (1-based line numbers), up to a limit after which errorsTruncated is set.
+public record ContentImportResult(
+        long lines,
+        long inserted,
+        long updated,
+        long failed,
+        List<LineError> errors,
+        boolean errorsTruncated) {
+
+    public record LineError(long line, String error) {
+    }
+}
@@ -0,0 +1,14 @@
+package jar.dto;
+
+// One recommended content item. score is the summed item-item similarity to the user's
+// recent completions (or the item's popularity for users without history yet).
+public record ContentRecommendation(
+        Long id,
+        String title,
+        String contentType,
+        String category,
+        String difficultyLevel,
+        String accessLevel,
+        Integer durationMinutes,
+        double score) {
+}
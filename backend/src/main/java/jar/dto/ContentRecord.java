@@ -0,0 +1,33 @@
+package jar.dto;
+
+import jar.model.Content;
+
+import java.time.LocalDate;
+
+// One catalog item as exported to (and imported from) NDJSON, and as held by the in-memory
+// catalog (see ContentCatalogCache).
+// id and uploadDate are informational: imports match items by (contentType, title).
+public record ContentRecord(
+        Long id,
+        String title,
+        String description,
+        String contentType,
+        String category,
+        String difficultyLevel,
+        String accessLevel,
+        Integer durationMinutes,
+        String videoUrl,
+        Integer sets,
+        String reps,
+        Integer restTimeSeconds,
+        String details,
+        LocalDate uploadDate) {
+
+    public static ContentRecord from(Content content) {
+        return new ContentRecord(content.getId(), content.getTitle(), content.getDescription(),
+                content.getContentType(), content.getCategory(), content.getDifficultyLevel(),
+                content.getAccessLevel(), content.getDurationMinutes(), content.getVideoUrl(),
+                content.getSets(), content.getReps(), content.getRestTimeSeconds(), content.getDetails(),
+                content.getUploadDate());
+    }
+}
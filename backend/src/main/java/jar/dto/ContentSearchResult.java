@@ -0,0 +1,24 @@
+package jar.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// Ranked hits for a catalog search, plus facet counts over every match (not just this page).
+// facets maps "contentType" / "category" / "difficultyLevel" to value -> count.
+public record ContentSearchResult(
+        String query,
+        int total,
+        List<Hit> hits,
+        Map<String, Map<String, Integer>> facets) {
+
+    public record Hit(
+            Long id,
+            String title,
+            String contentType,
+            String category,
+            String difficultyLevel,
+            String accessLevel,
+            Integer durationMinutes,
+            double score) {
+    }
+}
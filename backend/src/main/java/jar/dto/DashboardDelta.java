@@ -0,0 +1,23 @@
+package jar.dto;
+
+import java.time.LocalDateTime;
+
+// What changed on the dashboard since the previous update: the new* counts and revenue are
+// increments to add to the last totals, inboxMessages and activeUsers are current values.
+public record DashboardDelta(
+        long newUsers,
+        long newPayments,
+        double revenue,
+        long newMessages,
+        long activityEvents,
+        long inboxMessages,
+        long activeUsers,
+        LocalDateTime at) {
+
+    // One delta covering this one followed by next
+    public DashboardDelta merge(DashboardDelta next) {
+        return new DashboardDelta(newUsers + next.newUsers, newPayments + next.newPayments,
+                revenue + next.revenue, newMessages + next.newMessages, activityEvents + next.activityEvents,
+                next.inboxMessages, next.activeUsers, next.at);
+    }
+}
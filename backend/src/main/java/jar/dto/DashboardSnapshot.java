@@ -0,0 +1,16 @@
+package jar.dto;
+
+import java.time.LocalDateTime;
+
+// Dashboard totals, sent once when a client subscribes to the live stream.
+// Messages have no read flag; inboxMessages (messages not deleted yet) is the unread count.
+// activeUsers counts distinct users with activity in the last activeWindowMinutes.
+public record DashboardSnapshot(
+        long totalUsers,
+        long totalPayments,
+        double totalRevenue,
+        long inboxMessages,
+        long activeUsers,
+        int activeWindowMinutes,
+        LocalDateTime at) {
+}
@@ -0,0 +1,5 @@
+package jar.dto;
+
+// One leaderboard row; users with the same score share a rank
+public record LeaderboardEntry(int rank, Long userId, int score) {
+}
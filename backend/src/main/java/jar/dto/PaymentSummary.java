@@ -0,0 +1,39 @@
+package jar.dto;
+
+import jar.model.Payment;
+import jar.model.Subscription;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Payment as shown in the admin revenue list.
+// The nested user/subscription carry only ids and names instead of the full entity graphs.
+public record PaymentSummary(
+        Long id,
+        Double amount,
+        LocalDateTime paymentDate,
+        String paymentMethod,
+        String status,
+        UserSummary user,
+        SubscriptionSummary subscription) {
+
+    // Flat constructor used by JPQL "SELECT new" projections
+    public PaymentSummary(Long id, Double amount, LocalDateTime paymentDate, String paymentMethod, String status,
+            Long userId, String userFullName,
+            Long subscriptionId, Long planId, String planName,
+            LocalDate startDate, LocalDate endDate, Boolean isActive) {
+        this(id, amount, paymentDate, paymentMethod, status,
+                new UserSummary(userId, userFullName),
+                new SubscriptionSummary(subscriptionId, planId, planName, startDate, endDate, isActive));
+    }
+
+    // For a payment whose user, subscription and plan are already loaded in this transaction
+    public static PaymentSummary from(Payment payment) {
+        Subscription sub = payment.getSubscription();
+        return new PaymentSummary(payment.getId(), payment.getAmount(), payment.getPaymentDate(),
+                payment.getPaymentMethod(), payment.getStatus(),
+                new UserSummary(payment.getUser().getId(), payment.getUser().getFullName()),
+                new SubscriptionSummary(sub.getId(), sub.getPlan().getId(), sub.getPlan().getPlanName(),
+                        sub.getStartDate(), sub.getEndDate(), sub.getIsActive()));
+    }
+}
@@ -0,0 +1,21 @@
+package jar.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Progress of a background purge / user deletion job. deleted holds rows removed so far per table,
+// in the order the tables are processed; currentTable is null before the job starts and once it ends.
+// status: QUEUED, RUNNING, COMPLETED, CANCELLED or FAILED (error says why).
+public record PurgeJobStatus(
+        long id,
+        String type,
+        Long userId,
+        String status,
+        String currentTable,
+        Map<String, Long> deleted,
+        long totalDeleted,
+        LocalDateTime queuedAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error) {
+}
@@ -0,0 +1,23 @@
+package jar.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Revenue over [from, to], computed from the daily rollups.
+// mrr is the monthly-normalized revenue of paid subscriptions still running on "to".
+public record RevenueAnalytics(
+        LocalDate from,
+        LocalDate to,
+        double totalRevenue,
+        long paymentCount,
+        double mrr,
+        List<DayTotal> byDay,
+        List<GroupTotal> byPlan,
+        List<GroupTotal> byPaymentMethod) {
+
+    public record DayTotal(LocalDate day, double revenue, long payments) {
+    }
+
+    public record GroupTotal(String key, double revenue, long payments) {
+    }
+}
@@ -0,0 +1,12 @@
+package jar.dto;
+
+import java.time.LocalDate;
+
+public record SubscriptionSummary(
+        Long id,
+        Long planId,
+        String planName,
+        LocalDate startDate,
+        LocalDate endDate,
+        Boolean isActive) {
+}
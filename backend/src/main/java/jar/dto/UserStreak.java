@@ -0,0 +1,9 @@
+package jar.dto;
+
+import java.time.LocalDate;
+
+// Consecutive days with at least one COMPLETED activity. currentStreak is 0 once a whole day
+// has passed without one; lastActiveDate is null for users with no completion left in activity_logs
+// (longestStreak still counts the archived ones).
+public record UserStreak(Long userId, int currentStreak, int longestStreak, LocalDate lastActiveDate) {
+}
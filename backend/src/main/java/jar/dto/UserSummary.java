@@ -0,0 +1,5 @@
+package jar.dto;
+
+// Just enough of a User to label a row in a list (no profile fields, no password hash)
+public record UserSummary(Long id, String fullName) {
+}
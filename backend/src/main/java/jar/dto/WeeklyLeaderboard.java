@@ -0,0 +1,8 @@
+package jar.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Top users of one ISO week (e.g. "2025-W07", starting Monday weekStart) by COMPLETED activities
+public record WeeklyLeaderboard(String week, LocalDate weekStart, List<LeaderboardEntry> entries) {
+}
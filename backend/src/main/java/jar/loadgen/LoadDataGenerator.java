@@ -0,0 +1,306 @@
+package jar.loadgen;
+
+import jar.IdGeneratorAligner;
+import jar.model.Plan;
+import jar.repository.PlanRepository;
+import jar.service.ContentCatalogCache;
+import jar.service.ContentSearchIndex;
+import jar.service.DashboardService;
+import jar.service.LeaderboardService;
+import jar.service.RecommendationService;
+import jar.service.RevenueService;
+import jar.service.SubscriptionExpiryService;
+import jar.service.UserStatsService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Fills the schema with a large synthetic data set for performance work.
+// Only active with the "loadgen" profile, e.g.
+//   mvn spring-boot:run -Dspring-boot.run.profiles=loadgen -Dspring-boot.run.arguments=--iqfit.loadgen.users=100000
+// Rows are appended with explicit ids (users after MAX(id), the other tables in a block reserved
+// from their id generator, see IdGeneratorAligner.reserve) and written with batched JDBC, one transaction per batch. Activity and messages follow Zipf distributions,
+// so low user ids are the power users and low content ids the popular items. Every generated
+// user can log in as load<id>@iqfit.test with iqfit.loadgen.password. Afterwards the derived
+// state (id generators, catalog, search index, stats, revenue rollups, expiry heap,
+// recommendation model) is rebuilt.
+@Component
+@Profile("loadgen")
+public class LoadDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDataGenerator.class);
+
+    private static final String[] CONTENT_TYPES = {"WORKOUT", "STUDY_TIP", "RECIPE"};
+    private static final String[] CATEGORIES = {"Cardio", "Strength", "Mobility", "Yoga", "Focus", "Memory", "Exam Prep", "Breakfast", "Lunch", "Dinner"};
+    private static final String[] DIFFICULTIES = {"BEGINNER", "INTERMEDIATE", "ADVANCED"};
+    private static final String[] WORDS = {"Morning", "Power", "Quick", "Deep", "Core", "Focus", "Lean", "Protein", "Recall", "Endurance", "Calm", "Sprint", "Balance", "Fuel", "Memory"};
+    private static final String[] PAYMENT_METHODS = {"GCash", "GCash", "GCash", "PayPal", "PayPal", "Card"};
+    private static final String DETAILS = "{\"benefits\":[\"Builds consistency\",\"Improves energy\"],\"steps\":[\"Warm up\",\"Follow the main set\",\"Cool down\"]}";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private IdGeneratorAligner idGeneratorAligner;
+
+    @Autowired
+    private ContentCatalogCache contentCatalogCache;
+
+    @Autowired
+    private ContentSearchIndex contentSearchIndex;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private RevenueService revenueService;
+
+    @Autowired
+    private SubscriptionExpiryService subscriptionExpiryService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Value("${iqfit.loadgen.users:1000000}")
+    private int users;
+
+    @Value("${iqfit.loadgen.content:10000}")
+    private int contentItems;
+
+    @Value("${iqfit.loadgen.activity-logs:20000000}")
+    private long activityLogs;
+
+    @Value("${iqfit.loadgen.subscriptions:200000}")
+    private int subscriptions;
+
+    @Value("${iqfit.loadgen.messages:500000}")
+    private long messages;
+
+    @Value("${iqfit.loadgen.zipf-exponent:1.05}")
+    private double zipfExponent;
+
+    @Value("${iqfit.loadgen.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${iqfit.loadgen.seed:42}")
+    private long seed;
+
+    @Value("${iqfit.loadgen.password:password123}")
+    private String password;
+
+    private TransactionTemplate tx;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, long index) throws SQLException;
+    }
+
+    // Ready events come after the CommandLineRunners, so DataLoader's plans already exist
+    @EventListener(ApplicationReadyEvent.class)
+    public void generate() {
+        tx = new TransactionTemplate(transactionManager);
+        SplittableRandom random = new SplittableRandom(seed);
+        long started = System.currentTimeMillis();
+
+        List<Plan> paidPlans = planRepository.findAll().stream()
+                .filter(plan -> plan.getPrice() != null && plan.getPrice() > 0)
+                .toList();
+        if (paidPlans.isEmpty()) {
+            throw new IllegalStateException("Load generation needs at least one paid plan");
+        }
+
+        long userBase = maxId("users");
+        long contentBase = idGeneratorAligner.reserve("content", contentItems);
+        long subscriptionBase = idGeneratorAligner.reserve("subscriptions", subscriptions);
+        long paymentBase = idGeneratorAligner.reserve("payments", subscriptions);
+
+        String passwordHash = passwordEncoder.encode(password);
+        insert("users", "INSERT INTO users (id, full_name, email, password, date_of_birth, gender, role, is_premium, suspended, bio, weight, height, join_date, version) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", users, (ps, i) -> {
+                    long id = userBase + i + 1;
+                    ps.setLong(1, id);
+                    ps.setString(2, "Load User " + id);
+                    ps.setString(3, "load" + id + "@iqfit.test");
+                    ps.setString(4, passwordHash);
+                    ps.setObject(5, LocalDate.of(1975, 1, 1).plusDays(random.nextInt(12_000)));
+                    ps.setString(6, random.nextBoolean() ? "MALE" : "FEMALE");
+                    ps.setString(7, "USER");
+                    ps.setBoolean(8, false);
+                    ps.setBoolean(9, false);
+                    ps.setString(10, null);
+                    ps.setDouble(11, 45 + random.nextInt(60));
+                    ps.setDouble(12, 145 + random.nextInt(50));
+                    ps.setObject(13, now.toLocalDate().minusDays(random.nextInt(730)));
+                });
+
+        insert("content", "INSERT INTO content (id, title, description, content_type, category, difficulty_level, access_level, "
+                + "duration_minutes, video_url, sets, reps, rest_time_seconds, upload_date, details) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", contentItems, (ps, i) -> {
+                    long id = contentBase + i + 1;
+                    String type = CONTENT_TYPES[random.nextInt(CONTENT_TYPES.length)];
+                    boolean workout = "WORKOUT".equals(type);
+                    ps.setLong(1, id);
+                    ps.setString(2, WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id);
+                    ps.setString(3, "Generated " + type.toLowerCase() + " item " + id + " for load testing.");
+                    ps.setString(4, type);
+                    ps.setString(5, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                    ps.setString(6, DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]);
+                    ps.setString(7, random.nextInt(3) == 0 ? "PREMIUM" : "FREE");
+                    ps.setInt(8, 5 + random.nextInt(55));
+                    ps.setString(9, null);
+                    ps.setObject(10, workout ? 3 : null);
+                    ps.setString(11, workout ? "8-12" : null);
+                    ps.setObject(12, workout ? 30 : null);
+                    ps.setObject(13, now.toLocalDate().minusDays(random.nextInt(730)));
+                    ps.setString(14, DETAILS);
+                });
+
+        ZipfSampler userPopularity = new ZipfSampler(users, zipfExponent);
+        ZipfSampler contentPopularity = new ZipfSampler(contentItems, zipfExponent);
+
+        long logBase = idGeneratorAligner.reserve("activity_logs", activityLogs);
+        insert("activity_logs", "INSERT INTO activity_logs (id, user_id, content_id, status, date_accessed) VALUES (?, ?, ?, ?, ?)",
+                activityLogs, (ps, i) -> {
+                    ps.setLong(1, logBase + i + 1);
+                    ps.setLong(2, userBase + userPopularity.next(random) + 1);
+                    ps.setLong(3, contentBase + contentPopularity.next(random) + 1);
+                    ps.setString(4, random.nextInt(4) == 0 ? "STARTED" : "COMPLETED");
+                    ps.setObject(5, now.minusMinutes(random.nextInt(525_600)));
+                });
+
+        // One payment per subscription, sharing its offset so the rows line up
+        long[] subscriptionUsers = new long[subscriptions];
+        int[] subscriptionPlans = new int[subscriptions];
+        LocalDate[] subscriptionStarts = new LocalDate[subscriptions];
+        for (int i = 0; i < subscriptions; i++) {
+            subscriptionUsers[i] = userBase + random.nextInt(users) + 1;
+            subscriptionPlans[i] = random.nextInt(10) < 7 ? 0 : paidPlans.size() - 1;
+            subscriptionStarts[i] = now.toLocalDate().minusDays(random.nextInt(400));
+        }
+        insert("subscriptions", "INSERT INTO subscriptions (id, user_id, plan_id, start_date, end_date, is_active, version) VALUES (?, ?, ?, ?, ?, ?, 0)",
+                subscriptions, (ps, i) -> {
+                    Plan plan = paidPlans.get(subscriptionPlans[(int) i]);
+                    ps.setLong(1, subscriptionBase + i + 1);
+                    ps.setLong(2, subscriptionUsers[(int) i]);
+                    ps.setLong(3, plan.getId());
+                    ps.setObject(4, subscriptionStarts[(int) i]);
+                    ps.setObject(5, subscriptionStarts[(int) i].plusDays(plan.getDurationDays()));
+                    ps.setBoolean(6, true);
+                });
+        insert("payments", "INSERT INTO payments (id, user_id, subscription_id, amount, payment_date, payment_method, status) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                subscriptions, (ps, i) -> {
+                    Plan plan = paidPlans.get(subscriptionPlans[(int) i]);
+                    ps.setLong(1, paymentBase + i + 1);
+                    ps.setLong(2, subscriptionUsers[(int) i]);
+                    ps.setLong(3, subscriptionBase + i + 1);
+                    ps.setDouble(4, plan.getPrice());
+                    ps.setObject(5, subscriptionStarts[(int) i].atTime(8, 0).plusMinutes(random.nextInt(720)));
+                    ps.setString(6, PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+                    ps.setString(7, "PAID");
+                });
+        tx.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE users SET is_premium = TRUE WHERE id > ? AND EXISTS "
+                        + "(SELECT 1 FROM subscriptions s WHERE s.user_id = users.id AND s.is_active = TRUE)", userBase));
+
+        long messageBase = idGeneratorAligner.reserve("messages", messages);
+        insert("messages", "INSERT INTO messages (id, name, email, message, date_sent) VALUES (?, ?, ?, ?, ?)",
+                messages, (ps, i) -> {
+                    long userId = userBase + userPopularity.next(random) + 1;
+                    ps.setLong(1, messageBase + i + 1);
+                    ps.setString(2, "Load User " + userId);
+                    ps.setString(3, "load" + userId + "@iqfit.test");
+                    ps.setString(4, "Generated support message " + (i + 1));
+                    ps.setObject(5, now.minusMinutes(random.nextInt(525_600)));
+                });
+
+        restartIdentities("users");
+        rebuildDerivedState();
+        log.info("Load data generated in {} s", (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private void insert(String table, String sql, long count, RowWriter writer) {
+        long started = System.currentTimeMillis();
+        int batches = 0;
+        for (long from = 0; from < count; from += batchSize) {
+            long offset = from;
+            int size = (int) Math.min(batchSize, count - from);
+            tx.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    writer.write(ps, offset + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            }));
+            if (++batches % 100 == 0) {
+                log.info("{}: {} / {} rows", table, offset + size, count);
+            }
+        }
+        log.info("{}: {} rows inserted in {} ms", table, count, System.currentTimeMillis() - started);
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+    }
+
+    // MySQL moves AUTO_INCREMENT past explicit ids by itself; H2 identity columns do not
+    private void restartIdentities(String... tables) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"H2".equals(product)) {
+            return;
+        }
+        for (String table : tables) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId(table) + 1));
+        }
+    }
+
+    private void rebuildDerivedState() {
+        idGeneratorAligner.alignAll();
+        contentCatalogCache.refresh();
+        contentSearchIndex.rebuild();
+        userStatsService.rebuildAll(batchSize);
+        revenueService.backfill();
+        subscriptionExpiryService.start();
+        recommendationService.rebuild();
+        leaderboardService.rebuild();
+        dashboardService.resync();
+    }
+}
@@ -0,0 +1,38 @@
+package jar.loadgen;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent.
+// Rank 0 is the most popular item; with exponent ~1 a few percent of the items receive
+// most of the draws, which is how activity spreads over users and content in practice.
+// The CDF is precomputed once (n doubles), so each draw is one binary search.
+public class ZipfSampler {
+
+    private final double[] cdf;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+
+    public int next(RandomGenerator random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}
@@ -5,21 +5,29 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "activity_logs")
+@Table(name = "activity_logs", indexes = {
+    // Backs the keyset-paginated history query (user_id, date_accessed DESC, id DESC)
+    @Index(name = "idx_activity_logs_user_date", columnList = "user_id, date_accessed")
+})
 @Data
 public class ActivityLog {
 
+    // Pooled table generator instead of IDENTITY so Hibernate can batch inserts
+    // (ids are reserved 50 at a time; see IdGeneratorAligner)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "activity_log_ids")
+    @TableGenerator(name = "activity_log_ids", table = "id_generators",
+            pkColumnName = "gen_name", valueColumnName = "next_val",
+            pkColumnValue = "activity_logs", allocationSize = 50)
     private Long id;
 
     // We link to the User (Many logs can belong to One user)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     // We link to the Content (Many logs can be for One content item)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "content_id", nullable = false)
     private Content content;
 
@@ -30,6 +38,9 @@ public class ActivityLog {
 
     @PrePersist
     protected void onCreate() {
-        this.dateAccessed = LocalDateTime.now();
+        // Buffered (write-behind) events keep the time they were received
+        if (this.dateAccessed == null) {
+            this.dateAccessed = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
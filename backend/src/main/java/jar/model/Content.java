@@ -1,16 +1,29 @@
 package jar.model;
 
+import jar.CacheConfig;
+
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "content")
+@Table(name = "content", indexes = {
+    // Upsert key for bulk imports (see ContentImportService)
+    @Index(name = "idx_content_title_type", columnList = "title, content_type")
+})
 @Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.CONTENT)
 public class Content {
 
+    // Pooled table generator instead of IDENTITY so bulk imports can batch their inserts
+    // (ids are reserved 50 at a time; see IdGeneratorAligner)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "content_ids")
+    @TableGenerator(name = "content_ids", table = "id_generators",
+            pkColumnName = "gen_name", valueColumnName = "next_val",
+            pkColumnValue = "content", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -5,12 +5,18 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+    // Inbox ordering and date-range filter
+    @Index(name = "idx_messages_date_sent", columnList = "date_sent")
+})
 @Data
 public class Message {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "message_ids")
+    @TableGenerator(name = "message_ids", table = "id_generators",
+            pkColumnName = "gen_name", valueColumnName = "next_val",
+            pkColumnValue = "messages", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -23,6 +29,9 @@ public class Message {
 
     @PrePersist
     protected void onCreate() {
-        this.dateSent = LocalDateTime.now();
+        // Buffered messages keep the time they were accepted, not the time of the batch insert
+        if (this.dateSent == null) {
+            this.dateSent = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
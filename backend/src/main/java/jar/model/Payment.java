@@ -5,19 +5,27 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    // Admin list filters/sorting (see PaymentSpecifications)
+    @Index(name = "idx_payments_date", columnList = "payment_date"),
+    @Index(name = "idx_payments_method_status_date", columnList = "payment_method, status, payment_date")
+})
 @Data
 public class Payment {
 
+    // Table-generated like Subscription, so both rows are inserted in the payment transaction's flush
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "payment_ids")
+    @TableGenerator(name = "payment_ids", table = "id_generators",
+            pkColumnName = "gen_name", valueColumnName = "next_val",
+            pkColumnValue = "payments", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "subscription_id", nullable = false)
     private Subscription subscription;
 
@@ -0,0 +1,59 @@
+package jar.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// One row per Idempotency-Key seen on POST /api/payments/pay.
+// The key is the primary key, so a replay is a single PK lookup and two concurrent requests
+// with the same key cannot both commit. The original response body is kept verbatim.
+@Entity
+@Table(name = "payment_idempotency_keys", indexes = {
+    // Retention sweep
+    @Index(name = "idx_payment_idempotency_created", columnList = "created_at")
+})
+@Data
+public class PaymentIdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of the request fields, to reject a key reused for a different payment
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+
+    private Long paymentId;
+
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    private LocalDateTime createdAt;
+
+    // Assigned ids would otherwise make save() issue a SELECT (merge) before the INSERT
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -1,11 +1,16 @@
 package jar.model;
 
+import jar.CacheConfig;
+
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "plans")
 @Data
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.PLANS)
 public class Plan {
 
     @Id
@@ -0,0 +1,30 @@
+package jar.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+// Revenue per day, plan and payment method.
+// Incremented by PaymentController.makePayment; rebuilt from payments by RevenueService.backfill.
+@Entity
+@Table(name = "revenue_daily_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_revenue_rollup_key", columnNames = {"revenue_date", "plan_id", "payment_method"})
+})
+@Data
+public class RevenueDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private LocalDate revenueDate;
+
+    @Column(name = "plan_id")
+    private Long planId;
+
+    @Column(name = "payment_method")
+    private String paymentMethod;
+
+    private double totalAmount;
+    private long paymentCount;
+}
@@ -5,19 +5,26 @@ import lombok.Data;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "subscriptions")
+@Table(name = "subscriptions", indexes = {
+    // Lets the expiry job find due subscriptions without scanning the table
+    @Index(name = "idx_subscriptions_active_end", columnList = "is_active, end_date")
+})
 @Data
 public class Subscription {
 
+    // Pooled table generator so the payment transaction can batch its inserts (see IdGeneratorAligner)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "subscription_ids")
+    @TableGenerator(name = "subscription_ids", table = "id_generators",
+            pkColumnName = "gen_name", valueColumnName = "next_val",
+            pkColumnValue = "subscriptions", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "plan_id", nullable = false)
     private Plan plan;
 
@@ -25,6 +32,10 @@ public class Subscription {
     private LocalDate endDate;
     private Boolean isActive;
 
+    // Optimistic lock; bulk updates (expiry job) bump it explicitly
+    @Version
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         this.startDate = LocalDate.now();
@@ -1,13 +1,26 @@
 package jar.model;
 
+import jar.CacheConfig;
+
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty; // <--- 1. Add this Import
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    // Admin list filters/sorting (see UserSpecifications)
+    @Index(name = "idx_users_role_join_date", columnList = "role, join_date"),
+    @Index(name = "idx_users_join_date", columnList = "join_date"),
+    // Name prefix search, next to the unique email index
+    @Index(name = "idx_users_full_name", columnList = "full_name")
+})
 @Data
+// Short-lived L2 entry, dropped whenever the user is updated (profile, suspension, role, premium)
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CacheConfig.USERS)
 public class User {
 
     @Id
@@ -19,6 +32,8 @@ public class User {
     @Column(unique = true)
     private String email;
 
+    // Accepted on register/login/update but never written back out in responses
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     private LocalDate dateOfBirth;
@@ -44,6 +59,11 @@ public class User {
 
     private LocalDate joinDate;
 
+    // Optimistic lock for concurrent premium/profile changes (not part of the API)
+    @Version
+    @JsonIgnore
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         this.joinDate = LocalDate.now();
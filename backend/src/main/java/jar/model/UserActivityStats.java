@@ -0,0 +1,29 @@
+package jar.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Pre-aggregated dashboard counters, one row per user.
+// Kept in step with activity_logs by ActivityLogController.logActivity and
+// repairable with the admin rebuild job (UserStatsService.rebuildAll).
+// The counters cover all activity ever logged. The archived* columns hold the part that the
+// retention job has since moved out of activity_logs, so a rebuild can add it back.
+// longestStreak is written by LeaderboardService before rows are archived, for the same reason.
+@Entity
+@Table(name = "user_activity_stats")
+@Data
+public class UserActivityStats {
+
+    @Id
+    private Long userId;
+
+    private long workouts;      // COMPLETED WORKOUT items
+    private long studySessions; // COMPLETED STUDY_TIP items
+    private long recipesTried;  // COMPLETED RECIPE items
+
+    private long archivedWorkouts;
+    private long archivedStudySessions;
+    private long archivedRecipesTried;
+
+    private int longestStreak;  // longest run of days with a completion, see LeaderboardService
+}
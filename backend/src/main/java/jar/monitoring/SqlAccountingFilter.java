@@ -0,0 +1,103 @@
+package jar.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Per-request SQL accounting and per-controller-method metrics.
+// While a request runs, SqlStatementCounter collects its statements, rows and JDBC time. With
+// open-in-view off all of them come from the controller and services; JSON rendering cannot load
+// lazily. Afterwards they are recorded against the handling controller method:
+//   iqfit.controller.requests   timer (controller, method, status)
+//   iqfit.controller.sql.statements / iqfit.controller.sql.rows   summaries
+//   iqfit.controller.sql.time   timer
+// A request over iqfit.sql.budget.statements logs a warning with its most repeated SQL shapes.
+// Work that continues on another thread (async login, write-behind flushes) is not attributed.
+@Component
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlAccountingFilter.class);
+
+    private static final int SHAPES_IN_WARNING = 5;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${iqfit.sql.budget.statements:25}")
+    private int statementBudget;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = SqlStatementCounter.begin();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.end();
+            record(request, response, stats, System.nanoTime() - start);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestSqlStats stats, long nanos) {
+        String controller = "none";
+        String method = "none";
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            controller = handler.getBeanType().getSimpleName();
+            method = handler.getMethod().getName();
+        }
+
+        Timer.builder("iqfit.controller.requests")
+                .description("Request time per controller method")
+                .tags("controller", controller, "method", method, "status", String.valueOf(response.getStatus()))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("iqfit.controller.sql.statements")
+                .description("JDBC statements executed per request")
+                .tags("controller", controller, "method", method)
+                .register(meterRegistry)
+                .record(stats.statements());
+        DistributionSummary.builder("iqfit.controller.sql.rows")
+                .description("Result set rows read per request")
+                .tags("controller", controller, "method", method)
+                .register(meterRegistry)
+                .record(stats.rows());
+        Timer.builder("iqfit.controller.sql.time")
+                .description("Time spent executing JDBC statements per request")
+                .tags("controller", controller, "method", method)
+                .register(meterRegistry)
+                .record(stats.jdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.statements() > statementBudget) {
+            String shapes = stats.topShapes(SHAPES_IN_WARNING).stream()
+                    .map(shape -> shape.getValue() + "x " + shape.getKey())
+                    .collect(Collectors.joining("\n  "));
+            log.warn("{} {} ({}.{}) ran {} SQL statements (budget {}), {} rows, {} ms in JDBC. Most repeated:\n  {}",
+                    request.getMethod(), request.getRequestURI(), controller, method, stats.statements(), statementBudget,
+                    stats.rows(), TimeUnit.NANOSECONDS.toMillis(stats.jdbcNanos()), shapes);
+        }
+    }
+}
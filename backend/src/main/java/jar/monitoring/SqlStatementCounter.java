@@ -0,0 +1,40 @@
+package jar.monitoring;
+
+// Binds a RequestSqlStats to the current thread while a request is being handled.
+// The JDBC proxies record into it; outside a request (schedulers, write-behind flushers,
+// async continuations) nothing is bound and recording is a no-op.
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    static void statement(String sql, long nanos) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statement(sql, nanos);
+        }
+    }
+
+    static void row() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.row();
+        }
+    }
+}
@@ -1,11 +1,25 @@
 package jar.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jar.dto.ActivityExportRow;
+import jar.dto.ActivityHistoryItem;
 import jar.model.ActivityLog;
+import jakarta.persistence.QueryHint;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long> {
@@ -18,4 +32,80 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long>
 
     // --- NEW: Count logic for Dashboard Stats ---
     long countByUserIdAndStatusAndContentContentType(Long userId, String status, String contentType);
-}
\ No newline at end of file
+
+    // Completed counts per content type for one user, in a single grouped query.
+    // Rows are [contentType, count].
+    @Query("SELECT c.contentType, COUNT(a) FROM ActivityLog a JOIN a.content c "
+            + "WHERE a.user.id = :userId AND a.status = 'COMPLETED' "
+            + "GROUP BY c.contentType")
+    List<Object[]> countCompletedByContentType(@Param("userId") Long userId);
+
+    // Same aggregate for a chunk of users (used by the stats rebuild job).
+    // Rows are [userId, contentType, count].
+    @Query("SELECT a.user.id, c.contentType, COUNT(a) FROM ActivityLog a JOIN a.content c "
+            + "WHERE a.user.id IN :userIds AND a.status = 'COMPLETED' "
+            + "GROUP BY a.user.id, c.contentType")
+    List<Object[]> countCompletedByUserAndContentType(@Param("userIds") List<Long> userIds);
+
+    // COMPLETED (user, content) pairs for a chunk of users, oldest first per user
+    // (feeds the recommendation model rebuild; walks idx_activity_logs_user_date)
+    @Query("SELECT a.user.id, a.content.id FROM ActivityLog a "
+            + "WHERE a.user.id IN :userIds AND a.status = 'COMPLETED' "
+            + "ORDER BY a.user.id, a.dateAccessed, a.id")
+    List<Object[]> findCompletedPairs(@Param("userIds") List<Long> userIds);
+
+    // COMPLETED counts per (user, day) for a chunk of users, oldest day first per user.
+    // Rows are [userId, LocalDate, count] (feeds the streak / leaderboard rebuild).
+    @Query("SELECT a.user.id, CAST(a.dateAccessed AS LocalDate), COUNT(a) FROM ActivityLog a "
+            + "WHERE a.user.id IN :userIds AND a.status = 'COMPLETED' "
+            + "GROUP BY a.user.id, CAST(a.dateAccessed AS LocalDate) "
+            + "ORDER BY a.user.id, CAST(a.dateAccessed AS LocalDate)")
+    List<Object[]> countCompletedPerDay(@Param("userIds") List<Long> userIds);
+
+    // --- Keyset-paginated history (newest first) ---
+    // Both queries walk idx_activity_logs_user_date and join content once per row,
+    // so the cost of a page does not depend on how long the user's history is.
+    // Read-only transactions, so they can be served by a replica.
+    @Query("SELECT new jar.dto.ActivityHistoryItem(a.id, a.status, a.dateAccessed, c.id, c.title, c.contentType, c.category, c.durationMinutes) "
+            + "FROM ActivityLog a JOIN a.content c "
+            + "WHERE a.user.id = :userId "
+            + "ORDER BY a.dateAccessed DESC, a.id DESC")
+    @Transactional(readOnly = true)
+    List<ActivityHistoryItem> findHistoryFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new jar.dto.ActivityHistoryItem(a.id, a.status, a.dateAccessed, c.id, c.title, c.contentType, c.category, c.durationMinutes) "
+            + "FROM ActivityLog a JOIN a.content c "
+            + "WHERE a.user.id = :userId "
+            + "AND (a.dateAccessed < :cursorDate OR (a.dateAccessed = :cursorDate AND a.id < :cursorId)) "
+            + "ORDER BY a.dateAccessed DESC, a.id DESC")
+    @Transactional(readOnly = true)
+    List<ActivityHistoryItem> findHistoryPageAfter(@Param("userId") Long userId,
+            @Param("cursorDate") LocalDateTime cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    // Streaming export, optionally for one user and/or [from, to), in id order through a cursor
+    // 1000 rows at a time. Must be consumed (and closed) inside a transaction.
+    @Query("SELECT new jar.dto.ActivityExportRow(a.id, a.user.id, c.id, c.title, c.contentType, a.status, a.dateAccessed) "
+            + "FROM ActivityLog a JOIN a.content c "
+            + "WHERE (:userId IS NULL OR a.user.id = :userId) "
+            + "AND (:from IS NULL OR a.dateAccessed >= :from) AND (:to IS NULL OR a.dateAccessed < :to) "
+            + "ORDER BY a.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ActivityExportRow> streamForExport(@Param("userId") Long userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // --- Retention ---
+    // Next chunk of rows older than the cutoff, walking the primary key (one pass over the table)
+    @Query("SELECT new jar.dto.ActivityExportRow(a.id, a.user.id, c.id, c.title, c.contentType, a.status, a.dateAccessed) "
+            + "FROM ActivityLog a JOIN a.content c "
+            + "WHERE a.id > :afterId AND a.dateAccessed < :cutoff "
+            + "ORDER BY a.id")
+    List<ActivityExportRow> findOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ActivityLog a WHERE a.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -1,11 +1,19 @@
 package jar.repository;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jar.dto.ContentRecord;
 import jar.model.Content;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ContentRepository extends JpaRepository<Content, Long> {
@@ -17,4 +25,15 @@ public interface ContentRepository extends JpaRepository<Content, Long> {
     
     // Find everything that is "PREMIUM"
     List<Content> findByAccessLevel(String accessLevel);
+
+    // Candidates for a chunk of bulk-import upserts (idx_content_title_type)
+    List<Content> findByTitleIn(Collection<String> titles);
+
+    // Streaming export in id order through a cursor, 1000 rows at a time.
+    // Must be consumed (and closed) inside a transaction.
+    @Query("SELECT new jar.dto.ContentRecord(c.id, c.title, c.description, c.contentType, c.category, "
+            + "c.difficultyLevel, c.accessLevel, c.durationMinutes, c.videoUrl, c.sets, c.reps, c.restTimeSeconds, "
+            + "c.details, c.uploadDate) FROM Content c ORDER BY c.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ContentRecord> streamForExport();
 }
\ No newline at end of file
@@ -2,9 +2,19 @@ package jar.repository;
 
 import jar.model.Message;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface MessageRepository extends JpaRepository<Message, Long> {
-    // We can add custom finders later if needed
-}
\ No newline at end of file
+public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpecificationExecutor<Message> {
+
+    // Unlike deleteById, reports whether the message was there (0 or 1)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Message m WHERE m.id = :id")
+    int deleteMessage(@Param("id") Long id);
+}
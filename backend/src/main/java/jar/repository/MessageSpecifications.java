@@ -0,0 +1,33 @@
+package jar.repository;
+
+import jar.model.Message;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Filters for the admin inbox. Null arguments mean "don't filter on this".
+public final class MessageSpecifications {
+
+    // Properties the inbox may be sorted by; each is the leading column of an index
+    public static final Set<String> SORTABLE = Set.of("id", "dateSent");
+
+    private MessageSpecifications() {
+    }
+
+    public static Specification<Message> adminFilter(String email, LocalDate from, LocalDate to) {
+        List<Specification<Message>> specs = new ArrayList<>();
+        if (email != null && !email.isBlank()) {
+            specs.add((root, query, cb) -> cb.equal(root.get("email"), email.trim()));
+        }
+        if (from != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dateSent"), from.atStartOfDay()));
+        }
+        if (to != null) {
+            specs.add((root, query, cb) -> cb.lessThan(root.get("dateSent"), to.plusDays(1).atStartOfDay()));
+        }
+        return Specification.allOf(specs);
+    }
+}
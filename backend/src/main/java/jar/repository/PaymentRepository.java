@@ -1,11 +1,62 @@
 package jar.repository;
 
+import jar.dto.PaymentSummary;
 import jar.model.Payment;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpecificationExecutor<Payment> {
     List<Payment> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Admin revenue list: only the columns the UI shows, fetched in one joined query (replica-safe read)
+    @Query("SELECT new jar.dto.PaymentSummary(p.id, p.amount, p.paymentDate, p.paymentMethod, p.status, "
+            + "u.id, u.fullName, s.id, pl.id, pl.planName, s.startDate, s.endDate, s.isActive) "
+            + "FROM Payment p JOIN p.user u JOIN p.subscription s JOIN s.plan pl "
+            + "ORDER BY p.id")
+    @Transactional(readOnly = true)
+    List<PaymentSummary> findAllSummaries();
+
+    // Streaming export: same projection, optionally limited to [from, to), read through a cursor
+    // 1000 rows at a time. DTOs only, so nothing accumulates in the persistence context.
+    // Must be consumed (and closed) inside a transaction.
+    @Query("SELECT new jar.dto.PaymentSummary(p.id, p.amount, p.paymentDate, p.paymentMethod, p.status, "
+            + "u.id, u.fullName, s.id, pl.id, pl.planName, s.startDate, s.endDate, s.isActive) "
+            + "FROM Payment p JOIN p.user u JOIN p.subscription s JOIN s.plan pl "
+            + "WHERE (:from IS NULL OR p.paymentDate >= :from) AND (:to IS NULL OR p.paymentDate < :to) "
+            + "ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<PaymentSummary> streamSummaries(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Revenue per (plan, method) for payments made in [from, to) (used by the rollup backfill, one day at a time).
+    // Rows are [planId, paymentMethod, sum(amount), count].
+    @Query("SELECT s.plan.id, p.paymentMethod, SUM(p.amount), COUNT(p) "
+            + "FROM Payment p JOIN p.subscription s "
+            + "WHERE p.paymentDate >= :from AND p.paymentDate < :to "
+            + "GROUP BY s.plan.id, p.paymentMethod")
+    List<Object[]> sumByPlanAndMethod(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // [min(paymentDate), max(paymentDate)], both null without payments
+    @Query("SELECT MIN(p.paymentDate), MAX(p.paymentDate) FROM Payment p")
+    List<Object[]> findDateRange();
+
+    // Filtered admin page; user, subscription and plan come back in the same query (no N+1)
+    @Override
+    @EntityGraph(attributePaths = {"user", "subscription", "subscription.plan"})
+    Page<Payment> findAll(Specification<Payment> spec, Pageable pageable);
+}
@@ -0,0 +1,41 @@
+package jar.repository;
+
+import jar.model.Payment;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Filters for the admin payment list. Null arguments mean "don't filter on this".
+public final class PaymentSpecifications {
+
+    // Properties the admin list may be sorted by; each is the leading column of an index
+    public static final Set<String> SORTABLE = Set.of("id", "paymentDate");
+
+    private PaymentSpecifications() {
+    }
+
+    public static Specification<Payment> adminFilter(String paymentMethod, String status, Long userId,
+            LocalDate from, LocalDate to) {
+        List<Specification<Payment>> specs = new ArrayList<>();
+        if (paymentMethod != null && !paymentMethod.isBlank()) {
+            specs.add((root, query, cb) -> cb.equal(root.get("paymentMethod"), paymentMethod));
+        }
+        if (status != null && !status.isBlank()) {
+            specs.add((root, query, cb) -> cb.equal(root.get("status"), status));
+        }
+        if (userId != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("user").get("id"), userId));
+        }
+        // Date range is inclusive of both days: [from 00:00, to + 1 day 00:00)
+        if (from != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("paymentDate"), from.atStartOfDay()));
+        }
+        if (to != null) {
+            specs.add((root, query, cb) -> cb.lessThan(root.get("paymentDate"), to.plusDays(1).atStartOfDay()));
+        }
+        return Specification.allOf(specs);
+    }
+}
@@ -1,9 +1,20 @@
 package jar.repository;
 
 import jar.model.Plan;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PlanRepository extends JpaRepository<Plan, Long> {
-}
\ No newline at end of file
+
+    // The plan list barely changes: served from the query cache and the plans region
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Plan> findAll();
+}
@@ -0,0 +1,42 @@
+package jar.repository;
+
+import jar.model.RevenueDailyRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueDailyRollupRepository extends JpaRepository<RevenueDailyRollup, Long> {
+
+    // Range scan on the (revenue_date, plan_id, payment_method) unique index
+    List<RevenueDailyRollup> findByRevenueDateBetweenOrderByRevenueDate(LocalDate from, LocalDate to);
+
+    // One day's rows, locked so concurrent payments wait until the backfill has replaced the day
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RevenueDailyRollup r WHERE r.revenueDate = :day")
+    List<RevenueDailyRollup> lockDay(@Param("day") LocalDate day);
+
+    // [min(revenueDate), max(revenueDate)], both null without rollups
+    @Query("SELECT MIN(r.revenueDate), MAX(r.revenueDate) FROM RevenueDailyRollup r")
+    List<Object[]> findDateRange();
+
+    boolean existsByRevenueDateAndPlanIdAndPaymentMethod(LocalDate revenueDate, Long planId, String paymentMethod);
+
+    // All-time revenue and payment count, summed over the rollup rows. Rows are [amount, count].
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0), COALESCE(SUM(r.paymentCount), 0) FROM RevenueDailyRollup r")
+    List<Object[]> sumAll();
+
+    // In-place increment; returns 0 when the row for this key does not exist yet
+    @Modifying
+    @Query("UPDATE RevenueDailyRollup r SET r.totalAmount = r.totalAmount + :amount, r.paymentCount = r.paymentCount + :count "
+            + "WHERE r.revenueDate = :day AND r.planId = :planId AND r.paymentMethod = :method")
+    int addTo(@Param("day") LocalDate day, @Param("planId") Long planId, @Param("method") String method,
+            @Param("amount") double amount, @Param("count") long count);
+}
@@ -1,11 +1,35 @@
 package jar.repository;
 
 import jar.model.Subscription;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
     List<Subscription> findByUserId(Long userId);
+
+    // --- Expiry job (all backed by idx_subscriptions_active_end) ---
+
+    // Next chunk of active subscriptions whose last day is before "today"
+    @Query("SELECT s.id FROM Subscription s WHERE s.isActive = true AND s.endDate < :today ORDER BY s.endDate, s.id")
+    List<Long> findDueIds(@Param("today") LocalDate today, Pageable pageable);
+
+    @Query("SELECT DISTINCT s.user.id FROM Subscription s WHERE s.id IN :ids")
+    List<Long> findUserIdsByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Subscription s SET s.isActive = false, s.version = s.version + 1 WHERE s.id IN :ids")
+    int deactivate(@Param("ids") Collection<Long> ids);
+
+    // Distinct end dates still ahead of us, to seed the in-memory expiry heap
+    @Query("SELECT DISTINCT s.endDate FROM Subscription s WHERE s.isActive = true AND s.endDate >= :today")
+    List<LocalDate> findUpcomingEndDates(@Param("today") LocalDate today);
 }
\ No newline at end of file
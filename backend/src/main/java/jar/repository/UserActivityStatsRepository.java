@@ -0,0 +1,62 @@
+package jar.repository;
+
+import jar.model.UserActivityStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserActivityStatsRepository extends JpaRepository<UserActivityStats, Long> {
+
+    // In-place increments, so concurrent completions never overwrite each other.
+    // Each returns the number of rows touched (0 means the user has no stats row yet).
+    @Modifying
+    @Query("UPDATE UserActivityStats s SET s.workouts = s.workouts + :delta WHERE s.userId = :userId")
+    int addWorkouts(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE UserActivityStats s SET s.studySessions = s.studySessions + :delta WHERE s.userId = :userId")
+    int addStudySessions(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE UserActivityStats s SET s.recipesTried = s.recipesTried + :delta WHERE s.userId = :userId")
+    int addRecipesTried(@Param("userId") Long userId, @Param("delta") long delta);
+
+    // Folds completions the retention job is about to archive into the archived* baseline.
+    // Returns 0 when the user has no stats row yet.
+    @Modifying
+    @Query("UPDATE UserActivityStats s SET s.archivedWorkouts = s.archivedWorkouts + :workouts, "
+            + "s.archivedStudySessions = s.archivedStudySessions + :studySessions, "
+            + "s.archivedRecipesTried = s.archivedRecipesTried + :recipesTried WHERE s.userId = :userId")
+    int addArchived(@Param("userId") Long userId, @Param("workouts") long workouts,
+            @Param("studySessions") long studySessions, @Param("recipesTried") long recipesTried);
+
+    // Creates the row from seed or, when it already exists, adds delta's counters to it. One
+    // statement, so two transactions creating the same user's row do not collide on the key.
+    @Modifying
+    @Query(value = "INSERT INTO user_activity_stats (user_id, workouts, study_sessions, recipes_tried, "
+            + "archived_workouts, archived_study_sessions, archived_recipes_tried, longest_streak) "
+            + "VALUES (:#{#seed.userId}, :#{#seed.workouts}, :#{#seed.studySessions}, :#{#seed.recipesTried}, "
+            + ":#{#seed.archivedWorkouts}, :#{#seed.archivedStudySessions}, :#{#seed.archivedRecipesTried}, 0) "
+            + "ON DUPLICATE KEY UPDATE workouts = workouts + :#{#delta.workouts}, "
+            + "study_sessions = study_sessions + :#{#delta.studySessions}, "
+            + "recipes_tried = recipes_tried + :#{#delta.recipesTried}, "
+            + "archived_workouts = archived_workouts + :#{#delta.archivedWorkouts}, "
+            + "archived_study_sessions = archived_study_sessions + :#{#delta.archivedStudySessions}, "
+            + "archived_recipes_tried = archived_recipes_tried + :#{#delta.archivedRecipesTried}",
+            nativeQuery = true)
+    int insertOrAdd(@Param("seed") UserActivityStats seed, @Param("delta") UserActivityStats delta);
+
+    // Persisted longest streaks of a chunk of users, as [userId, longestStreak]
+    @Query("SELECT s.userId, s.longestStreak FROM UserActivityStats s WHERE s.userId IN :userIds AND s.longestStreak > 0")
+    List<Object[]> findLongestStreaks(@Param("userIds") List<Long> userIds);
+
+    // Only ever raises the stored value; returns 0 when it was already at least longest (or no row)
+    @Modifying
+    @Query("UPDATE UserActivityStats s SET s.longestStreak = :longest WHERE s.userId = :userId AND s.longestStreak < :longest")
+    int raiseLongestStreak(@Param("userId") Long userId, @Param("longest") int longest);
+}
@@ -1,12 +1,47 @@
 package jar.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import jar.model.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     // This finds a user by their email address (Essential for Login!)
     User findByEmail(String email);
+
+    // Swaps in a re-hashed password without loading or re-saving the whole user
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    // Clears isPremium for the given users unless they still hold another active subscription
+    @Modifying
+    @Query("UPDATE User u SET u.isPremium = false, u.version = u.version + 1 WHERE u.id IN :ids AND u.isPremium = true "
+            + "AND NOT EXISTS (SELECT s.id FROM Subscription s WHERE s.user.id = u.id AND s.isActive = true)")
+    int clearPremiumWithoutActiveSubscription(@Param("ids") Collection<Long> ids);
+
+    // Which of these ids exist (one index lookup instead of loading each user)
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Premium flag alone, for entitlement checks that do not need the whole row
+    @Query("SELECT u.isPremium FROM User u WHERE u.id = :id")
+    @Transactional(readOnly = true)
+    Optional<Boolean> findPremiumById(@Param("id") Long id);
+
+    // Walks user ids in ascending order for chunked background jobs
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package jar.repository;
+
+import jar.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Filters for the admin user list. Null arguments mean "don't filter on this".
+public final class UserSpecifications {
+
+    // Properties the admin list may be sorted by; each is the leading column of an index
+    public static final Set<String> SORTABLE = Set.of("id", "email", "fullName", "role", "joinDate");
+
+    // Not a backslash, which MySQL would also read as a string-literal escape
+    private static final char LIKE_ESCAPE = '!';
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> adminFilter(String role, Boolean suspended, Boolean premium,
+            LocalDate joinedFrom, LocalDate joinedTo, String search) {
+        List<Specification<User>> specs = new ArrayList<>();
+        if (role != null && !role.isBlank()) {
+            specs.add((root, query, cb) -> cb.equal(root.get("role"), role));
+        }
+        if (suspended != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("suspended"), suspended));
+        }
+        if (premium != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("isPremium"), premium));
+        }
+        if (joinedFrom != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("joinDate"), joinedFrom));
+        }
+        if (joinedTo != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("joinDate"), joinedTo));
+        }
+        if (search != null && !search.isBlank()) {
+            // Prefix match only (no leading wildcard). Both columns are indexed (the unique email index
+            // and idx_users_full_name), so MySQL can range-scan each and merge the two (index_merge
+            // sort_union); with either one unindexed the OR would scan the table.
+            // % and _ typed by the admin match literally. MySQL's default collation makes this
+            // case-insensitive.
+            String prefix = escapeLike(search.trim()) + "%";
+            specs.add((root, query, cb) -> cb.or(
+                    cb.like(root.get("email"), prefix, LIKE_ESCAPE),
+                    cb.like(root.get("fullName"), prefix, LIKE_ESCAPE)));
+        }
+        return Specification.allOf(specs);
+    }
+
+    static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
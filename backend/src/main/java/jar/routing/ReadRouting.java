@@ -0,0 +1,24 @@
+package jar.routing;
+
+// Per-thread override for ReplicaRoutingDataSource.
+// While forcePrimary() is in effect, read-only transactions on this thread use the primary
+// too (write requests, and reads that must see the caller's own recent writes).
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        FORCE_PRIMARY.remove();
+    }
+
+    public static boolean isPrimaryForced() {
+        return FORCE_PRIMARY.get() != null;
+    }
+}
@@ -0,0 +1,65 @@
+package jar.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Read-your-writes for replica routing.
+// Write requests (anything but GET/HEAD/OPTIONS) run entirely on the primary, so a read inside
+// them never meets replica lag. For iqfit.datasource.replicas.sticky-window-ms afterwards, the
+// same client's reads stay on the primary too. A client is the X-User-Id header when sent, else
+// the remote address; the window is tracked per app instance.
+@Component
+@ConditionalOnProperty(name = "iqfit.datasource.replicas.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String CLIENT_HEADER = "X-User-Id";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @Value("${iqfit.datasource.replicas.sticky-window-ms:5000}")
+    private long stickyWindowMs;
+
+    // client -> time (ms) until which its reads go to the primary
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = clientKey(request);
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        Long until = stickyUntil.get(client);
+        if (write || (until != null && until > System.currentTimeMillis())) {
+            ReadRouting.forcePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.clear();
+            if (write) {
+                stickyUntil.put(client, System.currentTimeMillis() + stickyWindowMs);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        String user = request.getHeader(CLIENT_HEADER);
+        return user != null && !user.isBlank() ? "user:" + user : "addr:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,96 @@
+package jar.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Replaces the auto-configured DataSource when iqfit.datasource.replicas.enabled=true:
+// the primary pool comes from spring.datasource.* (and spring.datasource.hikari.*), one extra
+// pool is opened per URL in iqfit.datasource.replicas.urls, and ReplicaRoutingDataSource picks
+// between them behind a LazyConnectionDataSourceProxy. Pools are named primary, replica-1, ...
+// and publish the usual hikaricp.connections.* metrics under those names.
+// Only the outer proxy is a bean, so the SQL accounting proxy wraps it exactly once.
+// Refuses to start with spring.jpa.open-in-view=true: the request-wide EntityManager holds its
+// connection from the first transaction to the end of the request, so every later transaction in
+// that request would reuse whichever database the first one was routed to.
+@Configuration
+@ConditionalOnProperty(name = "iqfit.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ReplicaRoutingDataSource routing;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+            @Value("${iqfit.datasource.replicas.urls}") List<String> replicaUrls,
+            @Value("${iqfit.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${iqfit.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${iqfit.datasource.replicas.pool-size:10}") int poolSize,
+            @Value("${iqfit.datasource.replicas.connection-timeout-ms:1000}") long connectionTimeoutMs,
+            @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException(
+                    "iqfit.datasource.replicas.enabled=true requires spring.jpa.open-in-view=false");
+        }
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricRegistry(meterRegistry);
+        pools.add(primary);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // Fail fast so a dead replica costs one short wait before the fallback, not 30 s
+            replica.setConnectionTimeout(connectionTimeoutMs);
+            // A replica that is down at startup is just left out until the health check sees it
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            pools.add(replica);
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        routing = new ReplicaRoutingDataSource(primary, replicas, meterRegistry);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Scheduled(fixedDelayString = "${iqfit.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        if (routing != null) {
+            routing.checkHealth();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
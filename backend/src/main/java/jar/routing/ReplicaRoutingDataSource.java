@@ -0,0 +1,164 @@
+package jar.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends connections for read-only transactions to a replica and everything else to the primary.
+// A replica is used when the current transaction is @Transactional(readOnly = true), the thread
+// is not pinned to the primary (ReadRouting) and at least one replica is healthy; healthy
+// replicas take turns. A replica that fails to hand out a connection, or fails checkHealth(),
+// is skipped until a later check succeeds, and the request falls back to the primary.
+// Must sit behind a LazyConnectionDataSourceProxy: the transaction's read-only flag is only
+// known once the transaction has started, after the transaction manager asked for a connection.
+//
+// Metrics: iqfit.datasource.routed (route) counts connections per target,
+// iqfit.datasource.replica.healthy (replica) is 1 or 0, iqfit.datasource.replica.fallbacks
+// counts reads that a failing replica pushed to the primary.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public static final String PRIMARY = "primary";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Map<String, Counter> routed = new HashMap<>();
+    private final Counter fallbacks;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    // replicas maps a route name (used in logs and metric tags) to its pool
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        routed.put(PRIMARY, routeCounter(meterRegistry, PRIMARY));
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            targets.put(name, dataSource);
+            routed.put(name, routeCounter(meterRegistry, name));
+            Gauge.builder("iqfit.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 while the replica receives read-only transactions")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        this.fallbacks = Counter.builder("iqfit.datasource.replica.fallbacks")
+                .description("Read-only connections sent to the primary because a replica failed")
+                .register(meterRegistry);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Replica replica = chooseReplica();
+        return replica != null ? replica.name : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                routed.get(replica.name).increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+                fallbacks.increment();
+            }
+        }
+        Connection connection = primary.getConnection();
+        routed.get(PRIMARY).increment();
+        return connection;
+    }
+
+    // Replicas are read with the pool's own credentials
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // Validates every replica, bringing recovered ones back into rotation
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            String problem;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                problem = connection.isValid(VALIDATION_TIMEOUT_SECONDS) ? null : "connection is not valid";
+            } catch (SQLException e) {
+                problem = e.getMessage();
+            }
+            if (problem != null) {
+                markDown(replica, problem);
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                log.info("Replica {} is healthy again, resuming read-only routing", replica.name);
+            }
+        }
+    }
+
+    public boolean isHealthy(String replicaName) {
+        return replicas.stream().anyMatch(replica -> replica.name.equals(replicaName) && replica.healthy);
+    }
+
+    // Next healthy replica when this thread may read from one, else null
+    private Replica chooseReplica() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadRouting.isPrimaryForced()) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void markDown(Replica replica, String problem) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} is unavailable ({}); read-only transactions fall back to the primary", replica.name, problem);
+        }
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("iqfit.datasource.routed")
+                .description("Connections handed out per routing target")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,124 @@
+package jar.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import jar.dto.ActivityExportRow;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Cold storage for archived activity_logs rows, one gzip NDJSON file per day:
+//   <archive-dir>/2025/03/activity-2025-03-14.ndjson.gz
+// Every append adds a new gzip member to the day's file (readers see the concatenation), and is
+// synced to disk before the retention job deletes the rows. If the job dies between the two,
+// the rows are archived again on the next run; readers drop the repeated ids.
+@Component
+public class ActivityArchiveStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${iqfit.activity.retention.archive-dir:archive/activity_logs}")
+    private Path archiveDir;
+
+    // Appends and reads of the same files never interleave
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Appends the rows to their day files (rows must have a dateAccessed)
+    public void append(List<ActivityExportRow> rows) throws IOException {
+        Map<LocalDate, List<ActivityExportRow>> byDay = new TreeMap<>();
+        for (ActivityExportRow row : rows) {
+            byDay.computeIfAbsent(row.dateAccessed().toLocalDate(), d -> new ArrayList<>()).add(row);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<LocalDate, List<ActivityExportRow>> day : byDay.entrySet()) {
+                Path file = file(day.getKey());
+                Files.createDirectories(file.getParent());
+                try (FileOutputStream out = new FileOutputStream(file.toFile(), true)) {
+                    GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+                    try (SequenceWriter json = objectMapper.writer()
+                            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                            .withRootValueSeparator("\n")
+                            .writeValues(writer)) {
+                        for (ActivityExportRow row : day.getValue()) {
+                            json.write(row);
+                        }
+                    }
+                    writer.write('\n');
+                    writer.flush();
+                    gzip.finish();
+                    out.getFD().sync();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Archived rows with dateAccessed in [from, to] (whole days), optionally for one user,
+    // in date order; stops after limit rows
+    public List<ActivityExportRow> read(LocalDate from, LocalDate to, Long userId, int limit) throws IOException {
+        List<ActivityExportRow> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (LocalDate day = from; !day.isAfter(to) && result.size() < limit; day = day.plusDays(1)) {
+                Path file = file(day);
+                if (Files.exists(file)) {
+                    readDay(file, userId, limit, result);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void readDay(Path file, Long userId, int limit, List<ActivityExportRow> result) throws IOException {
+        Set<Long> seen = new HashSet<>();
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+             MappingIterator<ActivityExportRow> rows = objectMapper.readerFor(ActivityExportRow.class).readValues(in)) {
+            while (rows.hasNextValue() && result.size() < limit) {
+                ActivityExportRow row = rows.nextValue();
+                if ((userId == null || userId.equals(row.userId())) && seen.add(row.id())) {
+                    result.add(row);
+                }
+            }
+        }
+    }
+
+    private Path file(LocalDate day) {
+        return archiveDir.resolve(String.valueOf(day.getYear()))
+                .resolve(String.format("%02d", day.getMonthValue()))
+                .resolve("activity-" + day + ".ndjson.gz");
+    }
+}
@@ -0,0 +1,228 @@
+package jar.service;
+
+import jar.dto.ActivityEvent;
+import jar.dto.ActivityHistoryItem;
+import jar.dto.ContentRecord;
+import jar.model.ActivityLog;
+import jar.repository.ActivityLogRepository;
+import jar.repository.ContentRepository;
+import jar.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+// Turns activity events into activity_logs rows.
+// Every path goes through commit(), which writes a whole list of events in one transaction:
+// users and content are attached as reference proxies (no SELECT per row), content types come
+// from the in-memory catalog, and the inserts go out as JDBC batches thanks to the pooled id
+// generator on ActivityLog. With write-behind enabled, single events are queued and persisted
+// by a background flusher in batches instead of one transaction per request.
+@Service
+public class ActivityIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityIngestService.class);
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private ContentCatalogCache contentCatalogCache;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${iqfit.activity.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+
+    @Value("${iqfit.activity.write-behind.capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${iqfit.activity.write-behind.batch-size:500}")
+    private int bufferBatchSize;
+
+    @Value("${iqfit.activity.write-behind.max-delay-ms:200}")
+    private long bufferMaxDelayMs;
+
+    @Value("${iqfit.activity.write-behind.offer-timeout-ms:50}")
+    private long bufferOfferTimeoutMs;
+
+    private TransactionTemplate transactionTemplate;
+    private WriteBehindBuffer<ActivityEvent> buffer;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (writeBehindEnabled) {
+            buffer = new WriteBehindBuffer<>("activity-write-behind", bufferCapacity, bufferBatchSize,
+                    bufferMaxDelayMs, bufferOfferTimeoutMs, this::flushBuffered);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return buffer != null;
+    }
+
+    // Queues one event for the background flusher.
+    // Returns false when the buffer is full, so the caller can push back on the client.
+    public boolean enqueue(ActivityEvent event) {
+        validate(List.of(event));
+        return buffer.offer(event);
+    }
+
+    // Validates and writes the events in a single transaction, then feeds the committed
+    // completions to the recommendation model, the streaks / leaderboards and the live dashboard.
+    // Unknown user or content ids reject the whole list with IllegalArgumentException.
+    public List<ActivityHistoryItem> persist(List<ActivityEvent> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        List<ActivityHistoryItem> items;
+        // Taken before the transaction starts, so a waiting leaderboard rebuild never holds us inside it
+        Lock gate = leaderboardService.recordGate();
+        gate.lock();
+        try {
+            items = commit(events);
+            leaderboardService.recordCompleted(events, items);
+        } finally {
+            gate.unlock();
+        }
+        afterCommit(events);
+        return items;
+    }
+
+    private List<ActivityHistoryItem> commit(List<ActivityEvent> events) {
+        validate(events);
+        return transactionTemplate.execute(status -> write(events));
+    }
+
+    private void afterCommit(List<ActivityEvent> events) {
+        recommendationService.recordCompleted(events);
+        dashboardService.activityRecorded(events);
+    }
+
+    private List<ActivityHistoryItem> write(List<ActivityEvent> events) {
+        List<ActivityLog> logs = new ArrayList<>(events.size());
+        Map<Long, Map<String, Long>> completedByUser = new HashMap<>();
+
+        for (ActivityEvent event : events) {
+            ActivityLog activity = new ActivityLog();
+            activity.setUser(userRepository.getReferenceById(event.userId()));
+            activity.setContent(contentRepository.getReferenceById(event.contentId()));
+            activity.setStatus(event.status());
+            activity.setDateAccessed(event.occurredAt());
+            logs.add(activity);
+
+            if ("COMPLETED".equals(event.status())) {
+                String contentType = contentCatalogCache.find(event.contentId()).map(ContentRecord::contentType).orElse(null);
+                completedByUser.computeIfAbsent(event.userId(), k -> new HashMap<>())
+                        .merge(contentType, 1L, Long::sum);
+            }
+        }
+
+        List<ActivityLog> saved = activityLogRepository.saveAll(logs);
+
+        completedByUser.forEach((userId, byType) ->
+                byType.forEach((contentType, delta) -> userStatsService.recordCompleted(userId, contentType, delta)));
+
+        List<ActivityHistoryItem> items = new ArrayList<>(saved.size());
+        for (ActivityLog activity : saved) {
+            ContentRecord content = contentCatalogCache.find(activity.getContent().getId()).orElseThrow();
+            items.add(ActivityHistoryItem.from(activity, content));
+        }
+        return items;
+    }
+
+    // Content ids are checked against the in-memory catalog; user ids with one IN query
+    private void validate(List<ActivityEvent> events) {
+        Set<Long> userIds = new HashSet<>();
+        for (ActivityEvent event : events) {
+            if (event.userId() == null || event.contentId() == null) {
+                throw new IllegalArgumentException("userId and contentId are required");
+            }
+            if (contentCatalogCache.find(event.contentId()).isEmpty()) {
+                throw new IllegalArgumentException("Content not found: " + event.contentId());
+            }
+            userIds.add(event.userId());
+        }
+        Set<Long> known = new HashSet<>(userRepository.findExistingIds(userIds));
+        for (Long userId : userIds) {
+            if (!known.contains(userId)) {
+                throw new IllegalArgumentException("User not found: " + userId);
+            }
+        }
+    }
+
+    // Background flush. If the batch's transaction fails as a whole (e.g. a user was deleted after
+    // the event was queued), retry event by event so one bad row does not drop its neighbours.
+    // Only the commit is retried: the in-memory consumers are fed once, with what was committed.
+    private void flushBuffered(List<ActivityEvent> batch) {
+        List<ActivityEvent> committed = batch;
+        List<ActivityHistoryItem> items;
+        Lock gate = leaderboardService.recordGate();
+        gate.lock();
+        try {
+            try {
+                items = commit(batch);
+            } catch (RuntimeException batchFailure) {
+                log.warn("Write-behind batch of {} failed ({}); retrying individually", batch.size(), batchFailure.getMessage());
+                committed = new ArrayList<>(batch.size());
+                items = new ArrayList<>(batch.size());
+                for (ActivityEvent event : batch) {
+                    try {
+                        items.addAll(commit(List.of(event)));
+                        committed.add(event);
+                    } catch (RuntimeException e) {
+                        log.warn("Dropping activity event {}: {}", event, e.getMessage());
+                    }
+                }
+            }
+            if (committed.isEmpty()) {
+                return;
+            }
+            leaderboardService.recordCompleted(committed, items);
+        } finally {
+            gate.unlock();
+        }
+        afterCommit(committed);
+    }
+}
@@ -0,0 +1,151 @@
+package jar.service;
+
+import jar.dto.ActivityExportRow;
+import jar.repository.ActivityLogRepository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Moves activity_logs rows older than iqfit.activity.retention.days into the compressed archive
+// (ActivityArchiveStore), so the live table only holds recent history.
+// Works one chunk at a time: read the next chunk-size old rows by primary key, append them to
+// the day files, then in one short transaction fold their COMPLETED counts into the users'
+// archived stats baseline and delete them by id. Each transaction touches at most chunk-size
+// rows, and the job pauses between chunks so ingest is never stuck behind it.
+// Before the first chunk goes, the leaderboard's longest streaks are stored, since a rebuild
+// can no longer see the archived days.
+@Service
+public class ActivityRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityRetentionService.class);
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private ActivityArchiveStore archiveStore;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${iqfit.activity.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${iqfit.activity.retention.days:365}")
+    private int retentionDays;
+
+    @Value("${iqfit.activity.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${iqfit.activity.retention.pause-ms:50}")
+    private long pauseMs;
+
+    private TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${iqfit.activity.retention.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            archiveExpired();
+        }
+    }
+
+    // Archives everything older than the retention window; returns the number of rows moved,
+    // or -1 when another run is already in progress
+    public long archiveExpired() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+            long started = System.currentTimeMillis();
+            long moved = 0;
+            long afterId = 0L;
+
+            while (true) {
+                List<ActivityExportRow> rows = activityLogRepository.findOlderThan(cutoff, afterId, PageRequest.of(0, chunkSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                if (moved == 0) {
+                    leaderboardService.persistLongestStreaks();
+                }
+                archiveStore.append(rows);
+                transactionTemplate.executeWithoutResult(status -> removeChunk(rows));
+                moved += rows.size();
+                afterId = rows.get(rows.size() - 1).id();
+                pause();
+            }
+
+            if (moved > 0) {
+                log.info("Archived {} activity logs older than {} in {} ms", moved, cutoff.toLocalDate(),
+                        System.currentTimeMillis() - started);
+            }
+            return moved;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the activity archive", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void removeChunk(List<ActivityExportRow> rows) {
+        // userId -> [workouts, studySessions, recipesTried]
+        Map<Long, long[]> completed = new HashMap<>();
+        for (ActivityExportRow row : rows) {
+            if (!"COMPLETED".equals(row.status()) || row.contentType() == null) {
+                continue;
+            }
+            int slot = switch (row.contentType()) {
+                case "WORKOUT" -> 0;
+                case "STUDY_TIP" -> 1;
+                case "RECIPE" -> 2;
+                default -> -1;
+            };
+            if (slot >= 0) {
+                completed.computeIfAbsent(row.userId(), k -> new long[3])[slot]++;
+            }
+        }
+        completed.forEach((userId, counts) -> userStatsService.recordArchived(userId, counts[0], counts[1], counts[2]));
+        activityLogRepository.deleteByIds(rows.stream().map(ActivityExportRow::id).toList());
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package jar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jar.dto.ContentRecord;
+import jar.model.Content;
+import jar.repository.ContentRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+// In-memory snapshot of the content catalog.
+// The catalog only changes when an admin edits it, so reads are served from pre-serialized
+// (and pre-gzipped) JSON and never touch the database. Every write publishes a new snapshot
+// under the next version number: single-item edits through put()/evict(), which reuse the
+// current snapshot, bulk writes through refresh(), which reloads the table once.
+// Items are handed out as immutable ContentRecords, never as the entities themselves.
+@Service
+public class ContentCatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentCatalogCache.class);
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    // JSON body for one catalog view, with its gzip encoding and a strong ETag
+    public record Payload(byte[] json, byte[] gzip, String etag) {
+    }
+
+    private record Snapshot(long version, List<ContentRecord> items, Map<Long, ContentRecord> byId,
+            Payload all, Map<String, Payload> byType, Payload empty) {
+    }
+
+    private static final Comparator<ContentRecord> BY_ID = Comparator.comparing(ContentRecord::id);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        snapshot();
+    }
+
+    public long version() {
+        return snapshot().version();
+    }
+
+    // Full catalog, in id order
+    public Payload all() {
+        return snapshot().all();
+    }
+
+    // Catalog filtered to one contentType (an empty array for unknown types)
+    public Payload byType(String contentType) {
+        Snapshot current = snapshot();
+        return current.byType().getOrDefault(contentType, current.empty());
+    }
+
+    // Full catalog, in id order
+    public List<ContentRecord> items() {
+        return snapshot().items();
+    }
+
+    public Optional<ContentRecord> find(Long id) {
+        return Optional.ofNullable(snapshot().byId().get(id));
+    }
+
+    // Reloads the whole catalog and bumps the version. For bulk writes (imports, load generation).
+    public synchronized void refresh() {
+        long nextVersion = snapshot == null ? 1 : snapshot.version() + 1;
+        List<ContentRecord> items = contentRepository.findAll(Sort.by("id")).stream().map(ContentRecord::from).toList();
+        snapshot = build(nextVersion, items);
+        log.info("Content catalog snapshot v{} built ({} items)", nextVersion, snapshot.items().size());
+    }
+
+    // Adds or replaces one item after it was saved. Only the full catalog and the item's old and
+    // new type views are serialized again; the other views are carried over.
+    public synchronized void put(Content saved) {
+        ContentRecord item = ContentRecord.from(saved);
+        Snapshot current = snapshot();
+        List<ContentRecord> items = new ArrayList<>(current.items());
+        int at = Collections.binarySearch(items, item, BY_ID);
+        if (at >= 0) {
+            items.set(at, item);
+        } else {
+            items.add(-at - 1, item);
+        }
+        ContentRecord old = current.byId().get(item.id());
+        publish(current, items, old == null ? null : old.contentType(), item.contentType());
+    }
+
+    // Drops one deleted item
+    public synchronized void evict(Long id) {
+        Snapshot current = snapshot();
+        ContentRecord old = current.byId().get(id);
+        if (old == null) {
+            return;
+        }
+        List<ContentRecord> items = new ArrayList<>(current.items());
+        items.remove(old);
+        publish(current, items, old.contentType(), null);
+    }
+
+    private void publish(Snapshot current, List<ContentRecord> items, String oldType, String newType) {
+        Map<Long, ContentRecord> byId = new HashMap<>();
+        items.forEach(item -> byId.put(item.id(), item));
+
+        Map<String, Payload> byType = new HashMap<>(current.byType());
+        for (String type : new String[] {oldType, newType}) {
+            if (type == null) {
+                continue;
+            }
+            List<ContentRecord> ofType = items.stream().filter(item -> type.equals(item.contentType())).toList();
+            if (ofType.isEmpty()) {
+                byType.remove(type);
+            } else {
+                byType.put(type, payload(ofType));
+            }
+        }
+
+        snapshot = new Snapshot(current.version() + 1, Collections.unmodifiableList(items),
+                Collections.unmodifiableMap(byId), payload(items), Collections.unmodifiableMap(byType), current.empty());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot build(long version, List<ContentRecord> items) {
+        Map<Long, ContentRecord> byId = new HashMap<>();
+        Map<String, List<ContentRecord>> grouped = new LinkedHashMap<>();
+        for (ContentRecord item : items) {
+            byId.put(item.id(), item);
+            if (item.contentType() != null) {
+                grouped.computeIfAbsent(item.contentType(), k -> new ArrayList<>()).add(item);
+            }
+        }
+
+        Map<String, Payload> byType = new HashMap<>();
+        grouped.forEach((type, list) -> byType.put(type, payload(list)));
+
+        return new Snapshot(version, items, Collections.unmodifiableMap(byId),
+                payload(items), Collections.unmodifiableMap(byType), payload(List.of()));
+    }
+
+    private Payload payload(List<ContentRecord> contents) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(contents);
+            return new Payload(json, gzip(json), etag(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize content catalog", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Derived from the bytes themselves, so the tag stays valid across restarts
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
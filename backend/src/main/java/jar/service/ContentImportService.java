@@ -0,0 +1,396 @@
+package jar.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jar.dto.ContentImportResult;
+import jar.model.Content;
+import jar.repository.ContentRepository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Bulk catalog import from NDJSON (one content object per line, as written by the content export).
+// Each line is parsed on its own with Jackson's streaming parser and validated, so a bad line is
+// reported with its line number and the rest still load. Lines are read through a bounded reader:
+// no more than max-line-length characters of a line are ever held, and a longer one is skipped and
+// rejected like any other bad line. Valid items are upserted chunk-size at a
+// time, one transaction per chunk (a key repeated within a chunk keeps its last line): an item whose (contentType, title) already exists is updated
+// in place, anything else is inserted; the inserts and updates go out as JDBC batches (Content ids
+// come from the pooled table generator). If a chunk fails in the database, its items are retried
+// one by one so only the offending lines are rejected. The catalog snapshot is refreshed once at
+// the end and the search index as each chunk commits.
+@Service
+public class ContentImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentImportService.class);
+
+    private static final Set<String> CONTENT_TYPES = Set.of("WORKOUT", "STUDY_TIP", "RECIPE");
+    private static final Set<String> ACCESS_LEVELS = Set.of("FREE", "PREMIUM");
+    private static final int MAX_STRING_LENGTH = 255;
+    // TEXT columns (description, details)
+    private static final int MAX_TEXT_LENGTH = 65_535;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private ContentCatalogCache contentCatalogCache;
+
+    @Autowired
+    private ContentSearchIndex contentSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${iqfit.content.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${iqfit.content.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${iqfit.content.import.max-line-length:262144}")
+    private int maxLineLength;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // A validated line waiting for its chunk; item is never persisted itself. superseded counts the
+    // earlier lines of the chunk with the same key, which this one replaced.
+    private record Pending(long line, Content item, int superseded) {
+    }
+
+    // Rejects one line with a message for the caller
+    private static final class InvalidLine extends Exception {
+        InvalidLine(String message) {
+            super(message);
+        }
+    }
+
+    // Counters and errors of one import run
+    private final class Run {
+        long lines;
+        long inserted;
+        long updated;
+        long failed;
+        final List<ContentImportResult.LineError> errors = new ArrayList<>();
+        boolean errorsTruncated;
+
+        void reject(long line, String error) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ContentImportResult.LineError(line, error));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        ContentImportResult result() {
+            return new ContentImportResult(lines, inserted, updated, failed, errors, errorsTruncated);
+        }
+    }
+
+    public ContentImportResult importNdjson(InputStream in) throws IOException {
+        long started = System.currentTimeMillis();
+        Run run = new Run();
+        // By key, in first-seen order
+        Map<String, Pending> chunk = new LinkedHashMap<>();
+
+        try (LineReader reader = new LineReader(in, maxLineLength)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.next()) != null) {
+                lineNumber++;
+                if (reader.tooLong()) {
+                    run.lines++;
+                    run.reject(lineNumber, "Line is longer than " + maxLineLength + " characters");
+                    continue;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.lines++;
+                Content item;
+                try {
+                    item = toContent(parse(line));
+                } catch (InvalidLine e) {
+                    run.reject(lineNumber, e.getMessage());
+                    continue;
+                }
+                // A repeated key replaces the earlier line, as applying both in order would
+                String key = key(item);
+                Pending earlier = chunk.get(key);
+                if (earlier == null && chunk.size() >= chunkSize) {
+                    write(new ArrayList<>(chunk.values()), run);
+                    chunk.clear();
+                }
+                chunk.put(key, new Pending(lineNumber, item, earlier == null ? 0 : earlier.superseded() + 1));
+            }
+            write(new ArrayList<>(chunk.values()), run);
+        } finally {
+            // Chunks committed before a broken upload stay imported
+            if (run.inserted + run.updated > 0) {
+                contentCatalogCache.refresh();
+            }
+        }
+
+        log.info("Content import: {} lines, {} inserted, {} updated, {} rejected in {} ms", run.lines, run.inserted,
+                run.updated, run.failed, System.currentTimeMillis() - started);
+        return run.result();
+    }
+
+    private void write(List<Pending> chunk, Run run) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            int[] counts = upsert(chunk);
+            run.inserted += counts[0];
+            run.updated += counts[1];
+        } catch (RuntimeException chunkFailure) {
+            log.warn("Content import chunk of {} failed ({}); retrying line by line", chunk.size(),
+                    NestedExceptionUtils.getMostSpecificCause(chunkFailure).getMessage());
+            for (Pending pending : chunk) {
+                try {
+                    int[] counts = upsert(List.of(pending));
+                    run.inserted += counts[0];
+                    run.updated += counts[1];
+                } catch (RuntimeException e) {
+                    run.reject(pending.line(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+    }
+
+    // Upserts the items in one transaction; returns [inserted, updated]
+    private int[] upsert(List<Pending> chunk) {
+        int[] counts = new int[2];
+        List<Content> saved = transactionTemplate.execute(status -> {
+            Set<String> titles = new HashSet<>();
+            for (Pending pending : chunk) {
+                titles.add(pending.item().getTitle());
+            }
+            // Lowest id wins if an environment already holds duplicates
+            Map<String, Content> existing = new HashMap<>();
+            for (Content content : contentRepository.findByTitleIn(titles)) {
+                existing.merge(key(content), content, (a, b) -> a.getId() <= b.getId() ? a : b);
+            }
+
+            List<Content> rows = new ArrayList<>(chunk.size());
+            for (Pending pending : chunk) {
+                Content row = existing.get(key(pending.item()));
+                if (row == null) {
+                    row = new Content();
+                    counts[0]++;
+                } else {
+                    counts[1]++;
+                }
+                // Each replaced line would have inserted or updated the row, and the next one updated it
+                counts[1] += pending.superseded();
+                copy(pending.item(), row);
+                rows.add(row);
+            }
+            return contentRepository.saveAll(rows);
+        });
+        saved.forEach(contentSearchIndex::index);
+        return counts;
+    }
+
+    private JsonNode parse(String line) throws InvalidLine {
+        try (JsonParser parser = objectMapper.createParser(line)) {
+            JsonNode node = parser.readValueAsTree();
+            if (parser.nextToken() != null) {
+                throw new InvalidLine("Unexpected content after the JSON object");
+            }
+            return node;
+        } catch (JsonProcessingException e) {
+            throw new InvalidLine("Malformed JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new InvalidLine("Unreadable line: " + e.getMessage());
+        }
+    }
+
+    private Content toContent(JsonNode node) throws InvalidLine {
+        if (node == null || !node.isObject()) {
+            throw new InvalidLine("Expected a JSON object");
+        }
+        Content item = new Content();
+        item.setTitle(text(node, "title", MAX_STRING_LENGTH, true));
+        String contentType = text(node, "contentType", MAX_STRING_LENGTH, true);
+        if (!CONTENT_TYPES.contains(contentType)) {
+            throw new InvalidLine("contentType must be one of " + CONTENT_TYPES);
+        }
+        item.setContentType(contentType);
+        String accessLevel = text(node, "accessLevel", MAX_STRING_LENGTH, false);
+        if (accessLevel == null) {
+            accessLevel = "FREE";
+        } else if (!ACCESS_LEVELS.contains(accessLevel)) {
+            throw new InvalidLine("accessLevel must be one of " + ACCESS_LEVELS);
+        }
+        item.setAccessLevel(accessLevel);
+        item.setDescription(text(node, "description", MAX_TEXT_LENGTH, false));
+        item.setCategory(text(node, "category", MAX_STRING_LENGTH, false));
+        item.setDifficultyLevel(text(node, "difficultyLevel", MAX_STRING_LENGTH, false));
+        item.setVideoUrl(text(node, "videoUrl", MAX_STRING_LENGTH, false));
+        item.setReps(text(node, "reps", MAX_STRING_LENGTH, false));
+        item.setDurationMinutes(count(node, "durationMinutes"));
+        item.setSets(count(node, "sets"));
+        item.setRestTimeSeconds(count(node, "restTimeSeconds"));
+        item.setDetails(details(node));
+        return item;
+    }
+
+    private static String text(JsonNode node, String field, int maxLength, boolean required) throws InvalidLine {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            if (required) {
+                throw new InvalidLine(field + " is required");
+            }
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new InvalidLine(field + " must be a string");
+        }
+        String text = value.asText().trim();
+        if (required && text.isEmpty()) {
+            throw new InvalidLine(field + " must not be blank");
+        }
+        if (text.length() > maxLength) {
+            throw new InvalidLine(field + " is longer than " + maxLength + " characters");
+        }
+        return text;
+    }
+
+    private static Integer count(JsonNode node, String field) throws InvalidLine {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.canConvertToInt() || !value.isIntegralNumber() || value.intValue() < 0) {
+            throw new InvalidLine(field + " must be a non-negative integer");
+        }
+        return value.intValue();
+    }
+
+    // details holds JSON text; accept it as a string or as an inline object / array
+    private String details(JsonNode node) throws InvalidLine {
+        JsonNode value = node.get("details");
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text;
+        if (value.isTextual()) {
+            text = value.asText();
+        } else if (value.isContainerNode()) {
+            try {
+                text = objectMapper.writeValueAsString(value);
+            } catch (JsonProcessingException e) {
+                throw new InvalidLine("details could not be serialized");
+            }
+        } else {
+            throw new InvalidLine("details must be a JSON object, array or string");
+        }
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new InvalidLine("details is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return text;
+    }
+
+    private static void copy(Content from, Content to) {
+        to.setTitle(from.getTitle());
+        to.setDescription(from.getDescription());
+        to.setContentType(from.getContentType());
+        to.setCategory(from.getCategory());
+        to.setDifficultyLevel(from.getDifficultyLevel());
+        to.setAccessLevel(from.getAccessLevel());
+        to.setDurationMinutes(from.getDurationMinutes());
+        to.setVideoUrl(from.getVideoUrl());
+        to.setSets(from.getSets());
+        to.setReps(from.getReps());
+        to.setRestTimeSeconds(from.getRestTimeSeconds());
+        to.setDetails(from.getDetails());
+    }
+
+    private static String key(Content content) {
+        return content.getContentType() + '\u0000' + content.getTitle();
+    }
+
+    // Reads lines like BufferedReader.readLine, but keeps at most maxLength characters of one; the
+    // rest of a longer line is skipped up to the next newline and the line is flagged as too long
+    private static final class LineReader implements AutoCloseable {
+        private final Reader in;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+
+        LineReader(InputStream in, int maxLength) {
+            this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            this.maxLength = maxLength;
+        }
+
+        // The next line without its terminator, or null at the end of the input
+        String next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1 && c != '\n') {
+                // One character of slack for the \r of a CRLF terminator
+                if (line.length() <= maxLength) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+                c = in.read();
+            }
+            if (!tooLong && !line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            if (line.length() > maxLength) {
+                tooLong = true;
+            }
+            return tooLong ? "" : line.toString();
+        }
+
+        boolean tooLong() {
+            return tooLong;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package jar.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jar.dto.ContentRecord;
+import jar.dto.ContentSearchResult;
+import jar.model.Content;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over the content catalog, so text search never runs LIKE scans in MySQL.
+// Indexed fields: title (weight 3), category and difficultyLevel (2), description and the
+// benefits/steps text inside the details JSON (1). Every query term must match a document,
+// either exactly, as a prefix of an indexed term, or (for terms of 4+ characters) within one
+// edit, with prefix and typo matches scoring lower. Ranking is BM25 over the weighted term counts.
+// A term expands to at most MAX_PREFIX_EXPANSIONS prefix matches and MAX_TYPO_EXPANSIONS typo
+// matches, keeping the ones found in the most documents. Typo candidates come from a deletion index
+// (each term under itself and every one-character deletion of it), so finding them costs a few
+// lookups per query term instead of a pass over the vocabulary.
+// Built from the catalog at startup; content CRUD keeps it current through index()/remove().
+@Service
+public class ContentSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+    private static final int BODY_WEIGHT = 1;
+
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final double TYPO_FACTOR = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final int MAX_TYPO_EXPANSIONS = 8;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Map<String, Function<ContentRecord, String>> FACETS = facetFields();
+
+    @Autowired
+    private ContentCatalogCache contentCatalogCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (content id -> weighted term frequency)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // term or one-character deletion of a term -> the indexed terms it came from
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+    private final Map<Long, IndexedDoc> docs = new HashMap<>();
+    private long totalLength;
+
+    private record IndexedDoc(ContentRecord content, Map<String, Integer> terms, int length) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ContentRecord> items = contentCatalogCache.items();
+        List<IndexedDoc> analyzed = new ArrayList<>(items.size());
+        for (ContentRecord content : items) {
+            analyzed.add(analyze(content));
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            deletions.clear();
+            docs.clear();
+            totalLength = 0;
+            analyzed.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Content search index built ({} documents, {} terms)", analyzed.size(), postings.size());
+    }
+
+    // Adds or replaces one document
+    public void index(Content content) {
+        IndexedDoc doc = analyze(ContentRecord.from(content));
+        lock.writeLock().lock();
+        try {
+            delete(content.getId());
+            add(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long contentId) {
+        lock.writeLock().lock();
+        try {
+            delete(contentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Facet counts cover every document matching the text query; the type/category/difficulty
+    // filters then narrow the hits (so a UI can still show the other values to switch to).
+    // A blank query matches the whole catalog.
+    public ContentSearchResult search(String query, String type, String category, String difficulty, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = terms.isEmpty() ? matchAll() : matchAllTerms(terms);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            FACETS.keySet().forEach(name -> facets.put(name, new TreeMap<>()));
+
+            List<ContentSearchResult.Hit> hits = new ArrayList<>();
+            for (Map.Entry<Long, Double> match : scores.entrySet()) {
+                ContentRecord content = docs.get(match.getKey()).content();
+                FACETS.forEach((name, field) -> {
+                    String value = field.apply(content);
+                    if (value != null) {
+                        facets.get(name).merge(value, 1, Integer::sum);
+                    }
+                });
+                if (accepts(type, content.contentType()) && accepts(category, content.category())
+                        && accepts(difficulty, content.difficultyLevel())) {
+                    hits.add(hit(content, match.getValue()));
+                }
+            }
+
+            hits.sort(Comparator.comparingDouble(ContentSearchResult.Hit::score).reversed()
+                    .thenComparing(ContentSearchResult.Hit::id));
+            int total = hits.size();
+            return new ContentSearchResult(query, total, hits.subList(0, Math.min(limit, total)), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Matching and scoring (caller holds the read lock) ---
+
+    private Map<Long, Double> matchAll() {
+        Map<Long, Double> scores = new HashMap<>();
+        docs.keySet().forEach(id -> scores.put(id, 0.0));
+        return scores;
+    }
+
+    private Map<Long, Double> matchAllTerms(List<String> terms) {
+        Map<Long, Double> scores = null;
+        for (String term : terms) {
+            Map<Long, Double> termScores = scoreTerm(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    // Best score per document over the term's exact, prefix and one-typo expansions
+    private Map<Long, Double> scoreTerm(String term) {
+        Map<Long, Double> best = new HashMap<>();
+
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            accumulate(best, exact, 1.0);
+        }
+
+        if (term.length() >= MIN_PREFIX_LENGTH) {
+            Set<String> prefixed = postings.subMap(term, false, term + Character.MAX_VALUE, false).keySet();
+            for (String expansion : mostFrequent(prefixed, MAX_PREFIX_EXPANSIONS)) {
+                accumulate(best, postings.get(expansion), PREFIX_FACTOR);
+            }
+        }
+
+        if (exact == null && term.length() >= MIN_TYPO_LENGTH) {
+            Set<String> candidates = new HashSet<>();
+            for (String key : deletionKeys(term)) {
+                for (String candidate : deletions.getOrDefault(key, Set.of())) {
+                    if (withinOneEdit(term, candidate)) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+            for (String expansion : mostFrequent(candidates, MAX_TYPO_EXPANSIONS)) {
+                accumulate(best, postings.get(expansion), TYPO_FACTOR);
+            }
+        }
+        return best;
+    }
+
+    // The limit terms found in the most documents, ties going to the alphabetically first
+    private List<String> mostFrequent(Collection<String> terms, int limit) {
+        Comparator<String> byFrequency = Comparator.comparingInt((String term) -> postings.get(term).size())
+                .thenComparing(Comparator.reverseOrder());
+        // Min-heap on frequency: the head is the weakest term kept so far
+        PriorityQueue<String> top = new PriorityQueue<>(limit + 1, byFrequency);
+        for (String term : terms) {
+            top.add(term);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<String> result = new ArrayList<>(top);
+        result.sort(byFrequency.reversed());
+        return result;
+    }
+
+    private void accumulate(Map<Long, Double> best, Map<Long, Integer> posting, double factor) {
+        int n = docs.size();
+        int df = posting.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        double avgLength = n == 0 ? 1 : (double) totalLength / n;
+
+        posting.forEach((id, tf) -> {
+            double norm = K1 * (1 - B + B * docs.get(id).length() / avgLength);
+            double score = factor * idf * tf * (K1 + 1) / (tf + norm);
+            best.merge(id, score, Math::max);
+        });
+    }
+
+    // Damerau-Levenshtein distance <= 1 (one insert, delete, substitution or adjacent swap)
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1 || a.equals(b)) {
+            return false;
+        }
+        int i = 0;
+        while (i < la && i < lb && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (la == lb) {
+            if (a.regionMatches(i + 1, b, i + 1, la - i - 1)) {
+                return true;
+            }
+            return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.regionMatches(i + 2, b, i + 2, la - i - 2);
+        }
+        return la > lb
+                ? a.regionMatches(i + 1, b, i, lb - i)
+                : b.regionMatches(i + 1, a, i, la - i);
+    }
+
+    // --- Index maintenance (caller holds the write lock) ---
+
+    private void add(IndexedDoc doc) {
+        Long id = doc.content().id();
+        docs.put(id, doc);
+        totalLength += doc.length();
+        doc.terms().forEach((term, tf) -> postings.computeIfAbsent(term, k -> {
+            deletionKeys(k).forEach(key -> deletions.computeIfAbsent(key, d -> new HashSet<>()).add(k));
+            return new HashMap<>();
+        }).put(id, tf));
+    }
+
+    private void delete(Long id) {
+        IndexedDoc old = docs.remove(id);
+        if (old == null) {
+            return;
+        }
+        totalLength -= old.length();
+        for (String term : old.terms().keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    for (String key : deletionKeys(term)) {
+                        Set<String> terms = deletions.get(key);
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            deletions.remove(key);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // The term itself plus every string one deletion away. Two terms within one edit of each
+    // other (insert, delete, substitution or adjacent swap) always share at least one key.
+    // Terms too short to be reached by a typo match get no keys.
+    static Set<String> deletionKeys(String term) {
+        if (term.length() < MIN_TYPO_LENGTH - 1) {
+            return Set.of();
+        }
+        Set<String> keys = new HashSet<>();
+        keys.add(term);
+        for (int i = 0; i < term.length(); i++) {
+            keys.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return keys;
+    }
+
+    // --- Analysis ---
+
+    private IndexedDoc analyze(ContentRecord content) {
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, content.title(), TITLE_WEIGHT);
+        addField(terms, content.category(), TAG_WEIGHT);
+        addField(terms, content.difficultyLevel(), TAG_WEIGHT);
+        addField(terms, content.description(), BODY_WEIGHT);
+        addField(terms, detailsText(content.details()), BODY_WEIGHT);
+
+        int length = 0;
+        for (int tf : terms.values()) {
+            length += tf;
+        }
+        return new IndexedDoc(content, terms, length);
+    }
+
+    private static void addField(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    // All string values in the details JSON ({ "benefits": [...], "steps": [...] }).
+    // Details that are not valid JSON are indexed as plain text.
+    private String detailsText(String details) {
+        if (details == null || details.isBlank()) {
+            return null;
+        }
+        try {
+            StringBuilder text = new StringBuilder();
+            collectText(objectMapper.readTree(details), text);
+            return text.toString();
+        } catch (IOException e) {
+            return details;
+        }
+    }
+
+    private static void collectText(JsonNode node, StringBuilder text) {
+        if (node.isTextual()) {
+            text.append(node.asText()).append(' ');
+        } else if (node.isContainerNode()) {
+            node.forEach(child -> collectText(child, text));
+        }
+    }
+
+    // Lower-cased, accent-folded runs of letters and digits
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean accepts(String filter, String value) {
+        return filter == null || filter.isBlank() || filter.equalsIgnoreCase(value);
+    }
+
+    private static ContentSearchResult.Hit hit(ContentRecord content, double score) {
+        return new ContentSearchResult.Hit(content.id(), content.title(), content.contentType(),
+                content.category(), content.difficultyLevel(), content.accessLevel(),
+                content.durationMinutes(), score);
+    }
+
+    private static Map<String, Function<ContentRecord, String>> facetFields() {
+        Map<String, Function<ContentRecord, String>> fields = new LinkedHashMap<>();
+        fields.put("contentType", ContentRecord::contentType);
+        fields.put("category", ContentRecord::category);
+        fields.put("difficultyLevel", ContentRecord::difficultyLevel);
+        return fields;
+    }
+}
@@ -0,0 +1,319 @@
+package jar.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jar.dto.ActivityEvent;
+import jar.dto.DashboardDelta;
+import jar.dto.DashboardSnapshot;
+import jar.repository.MessageRepository;
+import jar.repository.RevenueDailyRollupRepository;
+import jar.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Live admin dashboard counters pushed over Server-Sent Events, so open admin tabs no longer
+// poll the full user / payment / message lists.
+// Controllers and services report what happened (user created, payment made, message sent,
+// activity logged); the counts accumulate in adders and publish() turns them into at most one
+// coalesced DashboardDelta per publish interval, sent to every subscriber. A new subscriber first
+// gets a DashboardSnapshot of the totals.
+//
+// Each subscriber has a bounded buffer drained by a small sender pool, so a slow client never
+// blocks publishing or other clients: when its buffer is full the newest queued delta absorbs the
+// next one (deltas add up, so nothing is lost, it just arrives in fewer events). Clients that
+// fail a send are dropped; EventSource reconnects by itself.
+// Totals are seeded from the database at startup and re-read every resync interval, which also
+// absorbs deletes and purges.
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private static final long PRUNE_INTERVAL_MS = 10_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private RevenueDailyRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${iqfit.dashboard.active-window-minutes:15}")
+    private int activeWindowMinutes;
+
+    @Value("${iqfit.dashboard.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${iqfit.dashboard.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${iqfit.dashboard.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${iqfit.dashboard.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    // Totals
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong totalPayments = new AtomicLong();
+    private final DoubleAdder totalRevenue = new DoubleAdder();
+    private final AtomicLong inboxMessages = new AtomicLong();
+
+    // Changes since the last publish
+    private final LongAdder newUsers = new LongAdder();
+    private final LongAdder newPayments = new LongAdder();
+    private final DoubleAdder newRevenue = new DoubleAdder();
+    private final LongAdder newMessages = new LongAdder();
+    private final LongAdder activityEvents = new LongAdder();
+
+    // user id -> last activity (epoch millis), pruned to the active window
+    private final Map<Long, Long> lastActive = new ConcurrentHashMap<>();
+    private long lastPrune;
+    private long lastPublishedInbox = -1;
+    private long lastPublishedActive = -1;
+    private long lastSent = System.currentTimeMillis();
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private ExecutorService senders;
+    private Counter coalesced;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("iqfit.dashboard.subscribers", subscribers, List::size)
+                .description("Open live dashboard streams")
+                .register(meterRegistry);
+        coalesced = Counter.builder("iqfit.dashboard.coalesced")
+                .description("Dashboard updates merged into an earlier one because a client's buffer was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        resync();
+    }
+
+    // --- Reported events (call after the change has committed) ---
+
+    public void userCreated() {
+        totalUsers.incrementAndGet();
+        newUsers.increment();
+    }
+
+    public void paymentMade(Double amount) {
+        double value = amount == null ? 0 : amount;
+        totalPayments.incrementAndGet();
+        totalRevenue.add(value);
+        newPayments.increment();
+        newRevenue.add(value);
+    }
+
+    public void messagesReceived(int count) {
+        inboxMessages.addAndGet(count);
+        newMessages.add(count);
+    }
+
+    public void messageDeleted() {
+        inboxMessages.decrementAndGet();
+    }
+
+    public void activityRecorded(List<ActivityEvent> events) {
+        long now = System.currentTimeMillis();
+        for (ActivityEvent event : events) {
+            lastActive.put(event.userId(), now);
+        }
+        activityEvents.add(events.size());
+    }
+
+    // --- Streaming ---
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.offer(snapshot());
+        return emitter;
+    }
+
+    public DashboardSnapshot snapshot() {
+        return new DashboardSnapshot(totalUsers.get(), totalPayments.get(), totalRevenue.sum(), inboxMessages.get(),
+                lastActive.size(), activeWindowMinutes, LocalDateTime.now());
+    }
+
+    // Sends what changed since the last run as one delta; idle streams get a heartbeat comment
+    @Scheduled(fixedDelayString = "${iqfit.dashboard.publish-interval-ms:1000}")
+    public void publish() {
+        long now = System.currentTimeMillis();
+        if (now - lastPrune >= PRUNE_INTERVAL_MS) {
+            long cutoff = now - activeWindowMinutes * 60_000L;
+            lastActive.values().removeIf(seen -> seen < cutoff);
+            lastPrune = now;
+        }
+
+        long users = newUsers.sumThenReset();
+        long payments = newPayments.sumThenReset();
+        double revenue = newRevenue.sumThenReset();
+        long messages = newMessages.sumThenReset();
+        long activity = activityEvents.sumThenReset();
+        long inbox = inboxMessages.get();
+        long active = lastActive.size();
+
+        boolean changed = users != 0 || payments != 0 || messages != 0 || activity != 0
+                || inbox != lastPublishedInbox || active != lastPublishedActive;
+        if (changed) {
+            lastPublishedInbox = inbox;
+            lastPublishedActive = active;
+            lastSent = now;
+            DashboardDelta delta = new DashboardDelta(users, payments, revenue, messages, activity, inbox, active,
+                    LocalDateTime.now());
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(delta);
+            }
+        } else if (now - lastSent >= heartbeatIntervalMs) {
+            lastSent = now;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    // Re-reads the totals from the database (rollups for revenue, so no payment scan)
+    @Scheduled(fixedDelayString = "${iqfit.dashboard.resync-interval-ms:300000}",
+            initialDelayString = "${iqfit.dashboard.resync-interval-ms:300000}")
+    public void resync() {
+        long users = userRepository.count();
+        long messages = messageRepository.count();
+        Object[] revenue = revenueRollupRepository.sumAll().get(0);
+        totalUsers.set(users);
+        inboxMessages.set(messages);
+        totalPayments.set(((Number) revenue[1]).longValue());
+        totalRevenue.reset();
+        totalRevenue.add(((Number) revenue[0]).doubleValue());
+        log.debug("Dashboard totals resynced: {} users, {} messages, {} payments", users, messages, revenue[1]);
+    }
+
+    // One SSE client: a bounded FIFO of pending events and at most one sender draining it
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+        private boolean heartbeatDue;
+        private boolean sending;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Queues an event; a full buffer merges a delta into the newest queued one
+        synchronized void offer(Object event) {
+            if (closed) {
+                return;
+            }
+            if (buffer.size() >= bufferSize && event instanceof DashboardDelta delta
+                    && buffer.peekLast() instanceof DashboardDelta last) {
+                buffer.pollLast();
+                buffer.addLast(last.merge(delta));
+                coalesced.increment();
+            } else {
+                buffer.addLast(event);
+            }
+            schedule();
+        }
+
+        synchronized void heartbeat() {
+            if (!closed) {
+                heartbeatDue = true;
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (!sending) {
+                sending = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                synchronized (this) {
+                    Object event = buffer.pollFirst();
+                    if (event instanceof DashboardSnapshot snapshot) {
+                        next = SseEmitter.event().name("snapshot").data(snapshot);
+                    } else if (event != null) {
+                        next = SseEmitter.event().name("delta").data(event);
+                    } else if (heartbeatDue) {
+                        next = SseEmitter.event().comment("heartbeat");
+                    } else {
+                        sending = false;
+                        return;
+                    }
+                    heartbeatDue = false;
+                }
+                try {
+                    emitter.send(next);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away (or the emitter already completed); the container completes
+                    // the async request itself after a failed write
+                    close();
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                sending = false;
+                buffer.clear();
+            }
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package jar.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import jar.repository.ActivityLogRepository;
+import jar.repository.ContentRepository;
+import jar.repository.PaymentRepository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Streaming NDJSON / CSV exports of payments, activity logs and the content catalog.
+// Rows come from a repository Stream (a forward-only JDBC cursor with a fixed fetch size) of DTO
+// projections, so no entities are managed and nothing accumulates in the persistence context.
+// Each row is written to a buffered writer over the response (optionally gzipped) as soon as it
+// is read, which keeps heap use flat whatever the table size. The query runs in its own read-only
+// transaction on the MVC async thread that drives the StreamingResponseBody.
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String PAYMENT_CSV_HEADER = "id,amount,paymentDate,paymentMethod,status,userId,userFullName,"
+            + "subscriptionId,planId,planName,startDate,endDate,isActive";
+    private static final String ACTIVITY_CSV_HEADER = "id,userId,contentId,contentTitle,contentType,status,dateAccessed";
+    private static final String CONTENT_CSV_HEADER = "id,title,description,contentType,category,difficultyLevel,"
+            + "accessLevel,durationMinutes,videoUrl,sets,reps,restTimeSeconds,details,uploadDate";
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    public enum Format {
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        // Throws IllegalArgumentException for anything but ndjson / csv
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+            }
+        }
+    }
+
+    // Writes one row as a CSV line
+    @FunctionalInterface
+    private interface CsvRow<T> {
+        void write(CsvWriter out, T row) throws IOException;
+    }
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Payments in id order, optionally with paymentDate in [from, to] (whole days)
+    public ResponseEntity<StreamingResponseBody> payments(Format format, LocalDate from, LocalDate to, boolean gzip) {
+        LocalDateTime start = from != null ? from.atStartOfDay() : null;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : null;
+        return response("payments", format, gzip, out -> write(out, format, gzip, "payments",
+                () -> paymentRepository.streamSummaries(start, end), PAYMENT_CSV_HEADER, (csv, p) -> csv
+                        .field(p.id()).field(p.amount()).field(p.paymentDate()).field(p.paymentMethod()).field(p.status())
+                        .field(p.user().id()).field(p.user().fullName())
+                        .field(p.subscription().id()).field(p.subscription().planId()).field(p.subscription().planName())
+                        .field(p.subscription().startDate()).field(p.subscription().endDate()).field(p.subscription().isActive())
+                        .endRow()));
+    }
+
+    // Activity logs in id order, optionally for one user and/or dateAccessed in [from, to] (whole days)
+    public ResponseEntity<StreamingResponseBody> activity(Format format, Long userId, LocalDate from, LocalDate to,
+            boolean gzip) {
+        LocalDateTime start = from != null ? from.atStartOfDay() : null;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : null;
+        return response("activity", format, gzip, out -> write(out, format, gzip, "activity logs",
+                () -> activityLogRepository.streamForExport(userId, start, end), ACTIVITY_CSV_HEADER, (csv, a) -> csv
+                        .field(a.id()).field(a.userId()).field(a.contentId()).field(a.contentTitle())
+                        .field(a.contentType()).field(a.status()).field(a.dateAccessed())
+                        .endRow()));
+    }
+
+    // The whole catalog in id order; the NDJSON form is what POST /api/content/bulk imports
+    public ResponseEntity<StreamingResponseBody> content(Format format, boolean gzip) {
+        return response("content", format, gzip, out -> write(out, format, gzip, "content items",
+                contentRepository::streamForExport, CONTENT_CSV_HEADER, (csv, c) -> csv
+                        .field(c.id()).field(c.title()).field(c.description()).field(c.contentType()).field(c.category())
+                        .field(c.difficultyLevel()).field(c.accessLevel()).field(c.durationMinutes()).field(c.videoUrl())
+                        .field(c.sets()).field(c.reps()).field(c.restTimeSeconds()).field(c.details()).field(c.uploadDate())
+                        .endRow()));
+    }
+
+    // Plain-text 400 for a bad export request (the handler's return type is fixed to a streaming body)
+    public static ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(out -> out.write(body));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> response(String name, Format format, boolean gzip,
+            StreamingResponseBody body) {
+        String fileName = name + "-" + LocalDate.now() + "." + format.extension + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : format.mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    private <T> void write(OutputStream response, Format format, boolean gzip, String what,
+            Supplier<Stream<T>> query, String csvHeader, CsvRow<T> csvRow) throws IOException {
+        long started = System.currentTimeMillis();
+        OutputStream target = gzip ? new GZIPOutputStream(response, BUFFER_SIZE) : response;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        long rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> {
+                try (Stream<T> stream = query.get()) {
+                    return format == Format.CSV
+                            ? writeCsv(stream, writer, csvHeader, csvRow)
+                            : writeNdjson(stream, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor and transaction are already closed
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (target instanceof GZIPOutputStream gz) {
+            gz.finish();
+        }
+        log.info("Exported {} {} as {} in {} ms", rows, what, format, System.currentTimeMillis() - started);
+    }
+
+    private <T> long writeNdjson(Stream<T> stream, Writer writer) throws IOException {
+        long rows = 0;
+        // One JSON document per line; closing the sequence leaves the writer open for the caller
+        try (SequenceWriter json = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(writer)) {
+            for (T row : (Iterable<T>) stream::iterator) {
+                json.write(row);
+                rows++;
+            }
+        }
+        if (rows > 0) {
+            writer.write('\n');
+        }
+        return rows;
+    }
+
+    private static <T> long writeCsv(Stream<T> stream, Writer writer, String header, CsvRow<T> csvRow)
+            throws IOException {
+        writer.write(header);
+        writer.write("\r\n");
+        CsvWriter csv = new CsvWriter(writer);
+        long rows = 0;
+        for (T row : (Iterable<T>) stream::iterator) {
+            csvRow.write(csv, row);
+            rows++;
+        }
+        return rows;
+    }
+
+    // RFC 4180 fields: quoted only when they contain a comma, quote or line break
+    private static final class CsvWriter {
+        private final Writer out;
+        private boolean firstField = true;
+
+        CsvWriter(Writer out) {
+            this.out = out;
+        }
+
+        CsvWriter field(Object value) throws IOException {
+            if (!firstField) {
+                out.write(',');
+            }
+            firstField = false;
+            if (value == null) {
+                return this;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(text.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(text);
+            }
+            return this;
+        }
+
+        void endRow() throws IOException {
+            out.write("\r\n");
+            firstField = true;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package jar.service;
+
+// Thrown when the password-hashing pool cannot take more work right now.
+// Controllers answer 429 so clients back off instead of piling onto request threads.
+public class HashingSaturatedException extends RuntimeException {
+
+    public HashingSaturatedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package jar.service;
+
+// An Idempotency-Key was sent again with a different request body.
+// Controllers answer 422 rather than replaying a response that belongs to another payment.
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency-Key " + idempotencyKey + " was already used for a different payment");
+    }
+}
@@ -0,0 +1,397 @@
+package jar.service;
+
+import jar.dto.ActivityEvent;
+import jar.dto.ActivityHistoryItem;
+import jar.dto.LeaderboardEntry;
+import jar.dto.UserStreak;
+import jar.dto.WeeklyLeaderboard;
+import jar.repository.ActivityLogRepository;
+import jar.repository.UserActivityStatsRepository;
+import jar.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Daily streaks and weekly leaderboards, kept in memory from COMPLETED activity.
+// Per user (arrays indexed by user id): the last day with a completion, the current run of
+// consecutive days and the longest run so far. Per ISO week (the last iqfit.leaderboard.weeks
+// weeks): each user's number of completions, plus a skip-list ranking of (score, user) so the
+// top of the board is read in O(log n + limit) while scores keep changing.
+//
+// Rebuilt in the background at startup from activity_logs, then updated by ActivityIngestService
+// after every commit; reads never touch the database. A rebuild reads users in id order, a chunk
+// at a time, while completions keep arriving. Log ids come from a pooled generator and do not
+// follow commit order, so they cannot tell which rows a chunk saw; instead ingest holds
+// recordGate() from before its commit until recordCompleted has run, and each chunk query runs
+// with the gate closed. A completion recorded before its user's chunk was read is in the scan; one
+// recorded after it (or for a user the rebuild never reached) is replayed onto the new board. A completion that arrives for a day older
+// than the user's last active day still counts for its week, but no longer changes the streak.
+// Rows moved to the archive (ActivityRetentionService) are not part of a rebuild, so before each
+// archive run the longest streaks are written to user_activity_stats (persistLongestStreaks) and a
+// rebuild starts every user from the stored value. Weekly scores and the current streak only come
+// from live rows; both are well inside the retention window.
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final Pattern ISO_WEEK = Pattern.compile("\\d{4}-W\\d{2}");
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserActivityStatsRepository statsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${iqfit.leaderboard.weeks:8}")
+    private int retainedWeeks;
+
+    @Value("${iqfit.leaderboard.rebuild-chunk-size:1000}")
+    private int rebuildChunkSize;
+
+    // Guards every array in board and pending
+    private final Object lock = new Object();
+    private final Object rebuildLock = new Object();
+    // Read side: a commit of COMPLETED rows up to its recordCompleted; write side: a rebuild chunk query
+    private final ReentrantReadWriteLock scanGate = new ReentrantReadWriteLock();
+
+    private volatile Board board = new Board();
+    private volatile boolean built;
+    private TransactionTemplate transactionTemplate;
+
+    // Non-null while a rebuild is reading activity_logs: [userId, epochDay, 1 if the user's chunk
+    // had already been read] of every completion recorded meanwhile
+    private List<long[]> pending;
+    // Users up to this id have been read by the running rebuild
+    private long scannedThrough;
+
+    private static final class Board {
+        // Indexed by user id; a user with current[u] == 0 has no completions in activity_logs
+        int[] lastDay = new int[0];
+        int[] current = new int[0];
+        int[] longest = new int[0];
+        // longest as last stored in user_activity_stats
+        int[] persisted = new int[0];
+        // Epoch day of the week's Monday -> that week's scores
+        final ConcurrentSkipListMap<Long, Week> weeks = new ConcurrentSkipListMap<>();
+    }
+
+    private static final class Week {
+        // Indexed by user id
+        int[] scores = new int[0];
+        // rankKey(score, user): natural order is highest score first, then lowest user id
+        final ConcurrentSkipListSet<Long> ranking = new ConcurrentSkipListSet<>();
+    }
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuildInBackground();
+    }
+
+    // Rebuilds on a separate thread so startup (or the caller) is not held up by a full scan
+    public void rebuildInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Leaderboard rebuild failed", e);
+            }
+        }, "leaderboard-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Re-reads the stored longest streaks and COMPLETED counts per user and day, chunk of users by
+    // chunk of users, into a fresh board and swaps it in. Completions the chunks did not see are
+    // replayed onto it.
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.currentTimeMillis();
+            synchronized (lock) {
+                pending = new ArrayList<>();
+                scannedThrough = 0L;
+            }
+
+            // Nothing else touches fresh until it is published
+            Board fresh = new Board();
+            long oldestWeek = oldestRetainedWeek();
+            long afterId = 0L;
+            while (true) {
+                List<Long> userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, rebuildChunkSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : statsRepository.findLongestStreaks(userIds)) {
+                    seedLongest(fresh, (Long) row[0], ((Number) row[1]).intValue());
+                }
+                long lastUserId = userIds.get(userIds.size() - 1);
+                List<Object[]> counts;
+                // No completion is between its commit and its recordCompleted while the chunk is read
+                scanGate.writeLock().lock();
+                try {
+                    counts = activityLogRepository.countCompletedPerDay(userIds);
+                    synchronized (lock) {
+                        scannedThrough = lastUserId;
+                    }
+                } finally {
+                    scanGate.writeLock().unlock();
+                }
+                for (Object[] row : counts) {
+                    apply(fresh, (Long) row[0], ((LocalDate) row[1]).toEpochDay(), ((Number) row[2]).intValue(), oldestWeek);
+                }
+                afterId = lastUserId;
+            }
+
+            int users;
+            synchronized (lock) {
+                for (long[] event : pending) {
+                    // Users created after the last chunk was listed were never read
+                    if (event[2] == 1 || event[0] > scannedThrough) {
+                        apply(fresh, event[0], event[1], 1, oldestRetainedWeek());
+                    }
+                }
+                pending = null;
+                board = fresh;
+                built = true;
+                users = (int) Arrays.stream(fresh.longest).filter(longest -> longest > 0).count();
+            }
+            log.info("Leaderboard rebuilt: {} users with completions, {} weeks in {} ms",
+                    users, fresh.weeks.size(), System.currentTimeMillis() - started);
+        }
+    }
+
+    // Stores every longest streak that grew since it was last stored; returns the number of users
+    // written. Builds the board first if the startup rebuild has not finished, so a partial board
+    // is never mistaken for the full history.
+    public int persistLongestStreaks() {
+        synchronized (rebuildLock) {
+            if (!built) {
+                rebuild();
+            }
+            // board is only swapped by rebuild, which needs rebuildLock
+            Board current = board;
+            List<int[]> grown = new ArrayList<>();
+            synchronized (lock) {
+                for (int u = 0; u < current.longest.length; u++) {
+                    if (current.longest[u] > current.persisted[u]) {
+                        grown.add(new int[] {u, current.longest[u]});
+                    }
+                }
+            }
+            for (int from = 0; from < grown.size(); from += rebuildChunkSize) {
+                List<int[]> chunk = grown.subList(from, Math.min(from + rebuildChunkSize, grown.size()));
+                transactionTemplate.executeWithoutResult(status -> chunk.forEach(
+                        entry -> statsRepository.raiseLongestStreak((long) entry[0], entry[1])));
+                synchronized (lock) {
+                    for (int[] entry : chunk) {
+                        current.persisted[entry[0]] = Math.max(current.persisted[entry[0]], entry[1]);
+                    }
+                }
+            }
+            if (!grown.isEmpty()) {
+                log.info("Stored longest streaks for {} users", grown.size());
+            }
+            return grown.size();
+        }
+    }
+
+    // Held by writers of COMPLETED rows from before their transaction starts until recordCompleted has
+    // run (see the class comment). Only a rebuild's chunk query ever waits on it.
+    public Lock recordGate() {
+        return scanGate.readLock();
+    }
+
+    // Called after the events' transaction has committed, under recordGate(); saved[i] is the row
+    // written for events[i]
+    public void recordCompleted(List<ActivityEvent> events, List<ActivityHistoryItem> saved) {
+        long oldestWeek = oldestRetainedWeek();
+        synchronized (lock) {
+            for (int i = 0; i < events.size(); i++) {
+                ActivityHistoryItem row = saved.get(i);
+                if (!"COMPLETED".equals(row.status()) || row.dateAccessed() == null) {
+                    continue;
+                }
+                long userId = events.get(i).userId();
+                long day = row.dateAccessed().toLocalDate().toEpochDay();
+                apply(board, userId, day, 1, oldestWeek);
+                if (pending != null) {
+                    pending.add(new long[] {userId, day, userId <= scannedThrough ? 1 : 0});
+                }
+            }
+        }
+    }
+
+    public UserStreak streak(Long userId) {
+        synchronized (lock) {
+            Board current = board;
+            if (userId < 0 || userId >= current.longest.length) {
+                return new UserStreak(userId, 0, 0, null);
+            }
+            int u = userId.intValue();
+            if (current.current[u] == 0) {
+                return new UserStreak(userId, 0, current.longest[u], null);
+            }
+            LocalDate lastActive = LocalDate.ofEpochDay(current.lastDay[u]);
+            // The streak is still alive today if yesterday (or today) had a completion
+            boolean alive = !lastActive.isBefore(LocalDate.now().minusDays(1));
+            return new UserStreak(userId, alive ? current.current[u] : 0, current.longest[u], lastActive);
+        }
+    }
+
+    // Top limit users of the week containing day
+    public WeeklyLeaderboard leaderboard(LocalDate day, int limit) {
+        LocalDate monday = day.with(DayOfWeek.MONDAY);
+        String label = String.format("%d-W%02d", monday.get(IsoFields.WEEK_BASED_YEAR),
+                monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+        Week week = board.weeks.get(monday.toEpochDay());
+        if (week == null) {
+            return new WeeklyLeaderboard(label, monday, List.of());
+        }
+
+        // The ranking is read without the lock; a user whose score is being bumped can briefly
+        // appear twice (new score added before the old one is removed), so keep the first
+        List<LeaderboardEntry> entries = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        int previousScore = -1;
+        int rank = 0;
+        for (Long key : week.ranking) {
+            if (entries.size() >= limit) {
+                break;
+            }
+            long userId = key & 0xFFFFFFFFL;
+            if (!seen.add(userId)) {
+                continue;
+            }
+            int score = Integer.MAX_VALUE - (int) (key >>> 32);
+            if (score != previousScore) {
+                rank = entries.size() + 1;
+                previousScore = score;
+            }
+            entries.add(new LeaderboardEntry(rank, userId, score));
+        }
+        return new WeeklyLeaderboard(label, monday, entries);
+    }
+
+    // Accepts an ISO week ("2025-W07") or any date in the week ("2025-02-12"); null means this week
+    public static LocalDate parseWeek(String value) {
+        if (value == null || value.isBlank()) {
+            return LocalDate.now();
+        }
+        try {
+            return ISO_WEEK.matcher(value).matches()
+                    ? LocalDate.parse(value + "-1", DateTimeFormatter.ISO_WEEK_DATE)
+                    : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid week: " + value + " (use e.g. 2025-W07 or 2025-02-12)");
+        }
+    }
+
+    // Starts a user's longest streak from the value stored before older rows were archived
+    private void seedLongest(Board target, long userId, int longest) {
+        if (!ensureCapacity(target, userId)) {
+            return;
+        }
+        int u = (int) userId;
+        target.longest[u] = Math.max(target.longest[u], longest);
+        target.persisted[u] = longest;
+    }
+
+    // Adds completions by one user on one day
+    private void apply(Board target, long userId, long epochDay, int completions, long oldestWeek) {
+        if (!ensureCapacity(target, userId)) {
+            return;
+        }
+        int u = (int) userId;
+        int day = (int) epochDay;
+
+        if (target.current[u] == 0 || day > target.lastDay[u] + 1) {
+            target.current[u] = 1;
+            target.lastDay[u] = day;
+        } else if (day == target.lastDay[u] + 1) {
+            target.current[u]++;
+            target.lastDay[u] = day;
+        }
+        target.longest[u] = Math.max(target.longest[u], target.current[u]);
+
+        long monday = LocalDate.ofEpochDay(epochDay).with(DayOfWeek.MONDAY).toEpochDay();
+        if (monday < oldestWeek) {
+            return;
+        }
+        Week week = target.weeks.get(monday);
+        if (week == null) {
+            week = new Week();
+            target.weeks.put(monday, week);
+            target.weeks.headMap(oldestWeek).clear();
+        }
+        if (u >= week.scores.length) {
+            week.scores = Arrays.copyOf(week.scores, Math.max(u + 1, week.scores.length * 2));
+        }
+        int before = week.scores[u];
+        int after = before + completions;
+        week.scores[u] = after;
+        week.ranking.add(rankKey(after, u));
+        if (before > 0) {
+            week.ranking.remove(rankKey(before, u));
+        }
+    }
+
+    // Arrays are indexed by id; ids beyond int range cannot be tracked
+    private static boolean ensureCapacity(Board target, long userId) {
+        if (userId < 0 || userId >= Integer.MAX_VALUE) {
+            return false;
+        }
+        int u = (int) userId;
+        if (u >= target.longest.length) {
+            int size = Math.max(u + 1, target.longest.length * 2);
+            target.lastDay = Arrays.copyOf(target.lastDay, size);
+            target.current = Arrays.copyOf(target.current, size);
+            target.longest = Arrays.copyOf(target.longest, size);
+            target.persisted = Arrays.copyOf(target.persisted, size);
+        }
+        return true;
+    }
+
+    private long oldestRetainedWeek() {
+        return LocalDate.now().with(DayOfWeek.MONDAY).minusWeeks(Math.max(1, retainedWeeks) - 1L).toEpochDay();
+    }
+
+    static long rankKey(int score, int userId) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | userId;
+    }
+}
@@ -0,0 +1,65 @@
+package jar.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-email failed-login throttling.
+// After maxFailures failures inside the window, further attempts for that email are refused
+// for lockSeconds without running bcrypt at all.
+@Service
+public class LoginThrottle {
+
+    // Above this many tracked emails, expired entries are swept on the next failure
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    @Value("${iqfit.security.login.max-failures:5}")
+    private int maxFailures;
+
+    @Value("${iqfit.security.login.window-seconds:900}")
+    private long windowSeconds;
+
+    @Value("${iqfit.security.login.lock-seconds:900}")
+    private long lockSeconds;
+
+    private final ConcurrentHashMap<String, Attempts> attempts = new ConcurrentHashMap<>();
+
+    private record Attempts(int failures, long windowStartMillis, long lockedUntilMillis) {
+    }
+
+    // Seconds the caller must wait before trying this email again (0 when allowed)
+    public long secondsUntilAllowed(String email) {
+        Attempts current = attempts.get(key(email));
+        long now = System.currentTimeMillis();
+        if (current == null || current.lockedUntilMillis() <= now) {
+            return 0;
+        }
+        return Math.max(1, (current.lockedUntilMillis() - now + 999) / 1000);
+    }
+
+    public void recordFailure(String email) {
+        long now = System.currentTimeMillis();
+        attempts.compute(key(email), (k, current) -> {
+            if (current == null || now - current.windowStartMillis() > windowSeconds * 1000) {
+                current = new Attempts(0, now, 0);
+            }
+            int failures = current.failures() + 1;
+            long lockedUntil = failures >= maxFailures ? now + lockSeconds * 1000 : current.lockedUntilMillis();
+            return new Attempts(failures, current.windowStartMillis(), lockedUntil);
+        });
+        if (attempts.size() > SWEEP_THRESHOLD) {
+            attempts.values().removeIf(a -> a.lockedUntilMillis() <= now
+                    && now - a.windowStartMillis() > windowSeconds * 1000);
+        }
+    }
+
+    public void recordSuccess(String email) {
+        attempts.remove(key(email));
+    }
+
+    private static String key(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
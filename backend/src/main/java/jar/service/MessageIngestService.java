@@ -0,0 +1,344 @@
+package jar.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jar.model.Message;
+import jar.repository.MessageRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Intake for the public contact form (POST /api/messages), which is unauthenticated.
+// A message has to pass, in order:
+//   1. the sending client's token bucket (remote address)
+//   2. the duplicate check: the same sender, name and text (case and whitespace folded) seen
+//      within the dedup window is acknowledged but not stored again
+//   3. the sender email's token bucket
+//   4. a global token bucket, which caps the rate of accepted messages and so the insert rate
+// Accepted messages go to a write-behind buffer and are inserted in JDBC batches (Message ids
+// come from the pooled table generator) by its flusher thread; a full buffer sheds the request.
+// A batch that fails is retried row by row; rows that still fail are retried every retry interval
+// (up to max-attempts), and a row that cannot be stored (constraint violation, attempts used up,
+// retry queue full, shutdown) is appended to the dead-letter NDJSON file, never just dropped.
+// Buckets and dedup entries live in memory per instance and expire on their own.
+@Service
+public class MessageIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageIngestService.class);
+
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_MESSAGE_LENGTH = 5_000;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${iqfit.messages.client.per-minute:10}")
+    private double clientPerMinute;
+
+    @Value("${iqfit.messages.client.burst:5}")
+    private int clientBurst;
+
+    @Value("${iqfit.messages.email.per-minute:3}")
+    private double emailPerMinute;
+
+    @Value("${iqfit.messages.email.burst:3}")
+    private int emailBurst;
+
+    @Value("${iqfit.messages.global.per-minute:600}")
+    private double globalPerMinute;
+
+    @Value("${iqfit.messages.global.burst:100}")
+    private int globalBurst;
+
+    @Value("${iqfit.messages.max-tracked-keys:100000}")
+    private int maxTrackedKeys;
+
+    @Value("${iqfit.messages.dedup-window-seconds:600}")
+    private long dedupWindowSeconds;
+
+    @Value("${iqfit.messages.write-behind.capacity:2000}")
+    private int bufferCapacity;
+
+    @Value("${iqfit.messages.write-behind.batch-size:200}")
+    private int bufferBatchSize;
+
+    @Value("${iqfit.messages.write-behind.max-delay-ms:500}")
+    private long bufferMaxDelayMs;
+
+    @Value("${iqfit.messages.write-behind.offer-timeout-ms:20}")
+    private long bufferOfferTimeoutMs;
+
+    @Value("${iqfit.messages.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${iqfit.messages.retry.dead-letter-file:data/messages-dead-letter.ndjson}")
+    private Path deadLetterFile;
+
+    public enum Outcome {
+        ACCEPTED, DUPLICATE, CLIENT_LIMITED, EMAIL_LIMITED, GLOBAL_LIMITED, BUFFER_FULL
+    }
+
+    // retryAfterSeconds is set for the limited / full outcomes
+    public record Result(Outcome outcome, long retryAfterSeconds) {
+    }
+
+    private TransactionTemplate transactionTemplate;
+    private TokenBucketLimiter clientLimiter;
+    private TokenBucketLimiter emailLimiter;
+    private TokenBucketLimiter globalLimiter;
+    private WriteBehindBuffer<Message> buffer;
+
+    // content hash -> expiry (epoch millis)
+    private final ConcurrentHashMap<UUID, Long> recent = new ConcurrentHashMap<>();
+
+    // Accepted messages whose insert failed, waiting for the next retry run (bounded by the buffer capacity)
+    private record Failed(Message message, int attempts) {
+    }
+
+    private final ConcurrentLinkedQueue<Failed> retries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger retryCount = new AtomicInteger();
+
+    private Counter accepted;
+    private Counter duplicates;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        clientLimiter = new TokenBucketLimiter(clientPerMinute, clientBurst, maxTrackedKeys);
+        emailLimiter = new TokenBucketLimiter(emailPerMinute, emailBurst, maxTrackedKeys);
+        globalLimiter = new TokenBucketLimiter(globalPerMinute, globalBurst, 1);
+        buffer = new WriteBehindBuffer<>("message-write-behind", bufferCapacity, bufferBatchSize,
+                bufferMaxDelayMs, bufferOfferTimeoutMs, this::flush);
+
+        accepted = Counter.builder("iqfit.messages.accepted")
+                .description("Contact messages queued for insert")
+                .register(meterRegistry);
+        duplicates = Counter.builder("iqfit.messages.duplicates")
+                .description("Contact messages dropped as repeats within the dedup window")
+                .register(meterRegistry);
+        Gauge.builder("iqfit.messages.buffered", buffer, WriteBehindBuffer::size)
+                .description("Contact messages waiting for the batch insert")
+                .register(meterRegistry);
+        Gauge.builder("iqfit.messages.retrying", retryCount, AtomicInteger::get)
+                .description("Contact messages waiting to retry a failed insert")
+                .register(meterRegistry);
+        Gauge.builder("iqfit.messages.tracked-keys", this, s -> s.clientLimiter.size() + s.emailLimiter.size())
+                .description("Client and email rate-limit buckets in memory")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        buffer.close();
+        retryFailed();
+        Failed failed;
+        while ((failed = retries.poll()) != null) {
+            deadLetter(failed.message(), "shutdown before a successful retry");
+        }
+    }
+
+    // Checks the fields; IllegalArgumentException carries the message for a 400
+    public void validate(Message message) {
+        if (message == null || message.getEmail() == null || !message.getEmail().contains("@")) {
+            throw new IllegalArgumentException("A valid email is required");
+        }
+        if (message.getEmail().length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Email is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        if (message.getName() != null && message.getName().length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        if (message.getMessage() == null || message.getMessage().isBlank()) {
+            throw new IllegalArgumentException("Message must not be empty");
+        }
+        if (message.getMessage().length() > MAX_MESSAGE_LENGTH) {
+            throw new IllegalArgumentException("Message is longer than " + MAX_MESSAGE_LENGTH + " characters");
+        }
+    }
+
+    public Result submit(Message message, String clientKey) {
+        validate(message);
+
+        long wait = clientLimiter.tryAcquire(clientKey);
+        if (wait > 0) {
+            return rejected(Outcome.CLIENT_LIMITED, wait);
+        }
+
+        UUID hash = contentHash(message);
+        long now = System.currentTimeMillis();
+        long expires = now + dedupWindowSeconds * 1000;
+        Long previous = recent.putIfAbsent(hash, expires);
+        if (previous != null) {
+            if (previous > now || !recent.replace(hash, previous, expires)) {
+                duplicates.increment();
+                return new Result(Outcome.DUPLICATE, 0);
+            }
+        }
+
+        wait = emailLimiter.tryAcquire(normalize(message.getEmail()));
+        Outcome outcome = Outcome.EMAIL_LIMITED;
+        if (wait == 0) {
+            wait = globalLimiter.tryAcquire("");
+            outcome = Outcome.GLOBAL_LIMITED;
+        }
+        if (wait == 0) {
+            Message row = new Message();
+            row.setName(message.getName());
+            row.setEmail(message.getEmail().trim());
+            row.setMessage(message.getMessage());
+            row.setDateSent(LocalDateTime.now());
+            if (buffer.offer(row)) {
+                accepted.increment();
+                return new Result(Outcome.ACCEPTED, 0);
+            }
+            outcome = Outcome.BUFFER_FULL;
+            wait = 1;
+        }
+        // Not stored, so an identical retry must not count as a duplicate
+        recent.remove(hash, expires);
+        return rejected(outcome, wait);
+    }
+
+    // Drops expired buckets and dedup entries
+    @Scheduled(fixedDelayString = "${iqfit.messages.sweep-interval-ms:60000}")
+    public void sweep() {
+        clientLimiter.sweep();
+        emailLimiter.sweep();
+        long now = System.currentTimeMillis();
+        recent.values().removeIf(expires -> expires <= now);
+    }
+
+    // Inserts again the messages whose insert failed before (each at most once per run)
+    @Scheduled(fixedDelayString = "${iqfit.messages.retry.interval-ms:30000}")
+    public void retryFailed() {
+        for (int i = retryCount.get(); i > 0; i--) {
+            Failed failed = retries.poll();
+            if (failed == null) {
+                break;
+            }
+            retryCount.decrementAndGet();
+            insertOne(failed.message(), failed.attempts() + 1);
+        }
+    }
+
+    private void flush(List<Message> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> messageRepository.saveAll(batch));
+            dashboardService.messagesReceived(batch.size());
+        } catch (RuntimeException batchFailure) {
+            log.warn("Message batch of {} failed ({}); retrying row by row", batch.size(),
+                    NestedExceptionUtils.getMostSpecificCause(batchFailure).getMessage());
+            for (Message message : batch) {
+                insertOne(message, 1);
+            }
+        }
+    }
+
+    // One insert attempt; a failure goes back to the retry queue or to the dead-letter file
+    private void insertOne(Message message, int attempt) {
+        // The rolled-back attempt may have assigned an id
+        message.setId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> messageRepository.save(message));
+            dashboardService.messagesReceived(1);
+        } catch (RuntimeException e) {
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (e instanceof DataIntegrityViolationException) {
+                deadLetter(message, reason);
+            } else if (attempt >= maxAttempts) {
+                deadLetter(message, "gave up after " + attempt + " attempts: " + reason);
+            } else if (retryCount.incrementAndGet() > bufferCapacity) {
+                retryCount.decrementAndGet();
+                deadLetter(message, "retry queue full: " + reason);
+            } else {
+                retries.add(new Failed(message, attempt));
+            }
+        }
+    }
+
+    private synchronized void deadLetter(Message message, String reason) {
+        message.setId(null);
+        try {
+            if (deadLetterFile.getParent() != null) {
+                Files.createDirectories(deadLetterFile.getParent());
+            }
+            try (Writer out = Files.newBufferedWriter(deadLetterFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(objectMapper.writeValueAsString(message));
+                out.write('\n');
+            }
+            log.error("Contact message from {} could not be stored ({}); written to {}", message.getEmail(), reason,
+                    deadLetterFile);
+        } catch (IOException e) {
+            log.error("Lost contact message from {} ({}): {}", message.getEmail(), reason, message.getMessage(), e);
+        }
+        meterRegistry.counter("iqfit.messages.dead-lettered").increment();
+    }
+
+    private Result rejected(Outcome outcome, long retryAfterSeconds) {
+        meterRegistry.counter("iqfit.messages.rejected", "reason", outcome.name().toLowerCase(Locale.ROOT)).increment();
+        return new Result(outcome, retryAfterSeconds);
+    }
+
+    // First 128 bits of SHA-256 over the normalized sender and text
+    private static UUID contentHash(Message message) {
+        String canonical = normalize(message.getEmail()) + '\u0000' + normalize(message.getName()) + '\u0000'
+                + normalize(message.getMessage());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer bytes = ByteBuffer.wrap(digest);
+            return new UUID(bytes.getLong(), bytes.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : WHITESPACE.matcher(value.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
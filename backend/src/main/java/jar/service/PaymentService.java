@@ -0,0 +1,212 @@
+package jar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jar.dto.PaymentSummary;
+import jar.model.Payment;
+import jar.model.PaymentIdempotencyKey;
+import jar.model.Plan;
+import jar.model.Subscription;
+import jar.model.User;
+import jar.repository.PaymentIdempotencyKeyRepository;
+import jar.repository.PaymentRepository;
+import jar.repository.PlanRepository;
+import jar.repository.SubscriptionRepository;
+import jar.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+// The payment flow behind POST /api/payments/pay.
+// Everything (subscription, premium flag, payment, idempotency record, revenue rollup) happens
+// in one transaction. Subscription and Payment ids come from the pooled table generator, so
+// nothing is written until the flush at commit, where the inserts go out as JDBC batches.
+// With an Idempotency-Key, a replay is answered from the stored response by primary key, and a
+// concurrent duplicate loses on the key's primary key and is answered the same way.
+// User and Subscription carry @Version; an optimistic conflict re-runs the transaction a few
+// times before surfacing as ObjectOptimisticLockingFailureException.
+@Service
+public class PaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PaymentIdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private RevenueService revenueService;
+
+    @Autowired
+    private SubscriptionExpiryService subscriptionExpiryService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${iqfit.payments.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    private TransactionTemplate transactionTemplate;
+
+    // replayed = true when the response comes from an earlier request with the same key
+    public record PaymentResult(PaymentSummary payment, boolean replayed) {
+    }
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public PaymentResult pay(Long userId, Long planId, Double amount, String paymentMethod, String idempotencyKey) {
+        String requestHash = idempotencyKey == null ? null : requestHash(userId, planId, amount, paymentMethod);
+        if (idempotencyKey != null) {
+            Optional<PaymentResult> previous = replay(idempotencyKey, requestHash);
+            if (previous.isPresent()) {
+                return previous.get();
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                PaymentSummary summary = transactionTemplate.execute(status ->
+                        write(userId, planId, amount, paymentMethod, idempotencyKey, requestHash));
+                subscriptionExpiryService.track(summary.subscription().endDate());
+                dashboardService.paymentMade(summary.amount());
+                return new PaymentResult(summary, false);
+            } catch (DataIntegrityViolationException e) {
+                // Most likely a concurrent request with the same key committed first
+                if (idempotencyKey != null) {
+                    Optional<PaymentResult> winner = replay(idempotencyKey, requestHash);
+                    if (winner.isPresent()) {
+                        return winner.get();
+                    }
+                }
+                throw e;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict paying for user {} (attempt {}), retrying", userId, attempt);
+            }
+        }
+    }
+
+    // Drops idempotency records once clients can no longer be retrying them
+    @Scheduled(fixedDelayString = "${iqfit.payments.idempotency.sweep-interval-ms:3600000}")
+    public void sweepExpiredKeys() {
+        int removed = idempotencyKeyRepository.deleteOlderThan(LocalDateTime.now().minusHours(retentionHours));
+        if (removed > 0) {
+            log.info("Removed {} expired payment idempotency keys", removed);
+        }
+    }
+
+    private PaymentSummary write(Long userId, Long planId, Double amount, String paymentMethod,
+            String idempotencyKey, String requestHash) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Plan plan = planRepository.findById(planId)
+                .orElseThrow(() -> new RuntimeException("Plan not found"));
+
+        Subscription sub = new Subscription();
+        sub.setUser(user);
+        sub.setPlan(plan);
+        sub.setStartDate(LocalDate.now());
+        sub.setEndDate(LocalDate.now().plusDays(plan.getDurationDays()));
+        sub.setIsActive(true);
+        subscriptionRepository.save(sub);
+
+        // Managed entity: only dirty when the flag actually changes, then version-checked
+        user.setPremium(true);
+
+        Payment payment = new Payment();
+        payment.setUser(user);
+        payment.setSubscription(sub);
+        payment.setAmount(amount);
+        payment.setPaymentMethod(paymentMethod);
+        payment.setStatus("PAID");
+        paymentRepository.save(payment);
+
+        PaymentSummary summary = PaymentSummary.from(payment);
+
+        if (idempotencyKey != null) {
+            PaymentIdempotencyKey record = new PaymentIdempotencyKey();
+            record.setIdempotencyKey(idempotencyKey);
+            record.setRequestHash(requestHash);
+            record.setPaymentId(payment.getId());
+            record.setResponse(toJson(summary));
+            idempotencyKeyRepository.save(record);
+        }
+
+        revenueService.record(payment.getPaymentDate().toLocalDate(), plan.getId(),
+                payment.getPaymentMethod(), amount == null ? 0 : amount, 1);
+        return summary;
+    }
+
+    private Optional<PaymentResult> replay(String idempotencyKey, String requestHash) {
+        return idempotencyKeyRepository.findById(idempotencyKey).map(record -> {
+            if (!record.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            try {
+                return new PaymentResult(objectMapper.readValue(record.getResponse(), PaymentSummary.class), true);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable stored response for idempotency key " + idempotencyKey, e);
+            }
+        });
+    }
+
+    private String toJson(PaymentSummary summary) {
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize payment response", e);
+        }
+    }
+
+    private static String requestHash(Long userId, Long planId, Double amount, String paymentMethod) {
+        String canonical = userId + "|" + planId + "|" + amount + "|" + paymentMethod;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package jar.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jar.dto.PurgeJobStatus;
+import jar.model.User;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Background jobs for the admin purge (all users and their data) and for deleting one user.
+// A job walks the tables in foreign-key order (payments -> subscriptions -> activity_logs ->
+// user_activity_stats -> users) and removes rows with set-based DELETEs over bounded key ranges:
+// it looks up the key chunk-size rows ahead, deletes everything up to it in one auto-committed
+// statement, pauses, and moves on. No entity is loaded and no statement holds locks on more than
+// chunk-size rows, whatever the table size. Rows can still be inserted for a user while their
+// child tables are being emptied (activity, a payment), which would make the users delete fail on
+// a foreign key; so the child tables are swept again right before the users step, and swept and
+// retried (up to USERS_ATTEMPTS times) if the users delete still hits one.
+//
+// Jobs run one at a time on a single thread, in submission order; submitting a job that is already
+// queued or running returns that job. Cancelling stops a job at the next chunk boundary; chunks
+// already deleted stay deleted. Finished jobs are kept (up to keep-finished) for the status endpoint.
+// Afterwards the users cache region is evicted and the in-memory views built from activity
+// (recommendations, leaderboards, dashboard totals) are refreshed. Revenue rollups are history and
+// are left alone.
+@Service
+public class PurgeJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(PurgeJobService.class);
+
+    public static final String PURGE_ALL = "PURGE_ALL";
+    public static final String DELETE_USER = "DELETE_USER";
+
+    // table, its key column, and the column that ties a row to the user being deleted
+    private record Step(String table, String key, String userColumn) {
+    }
+
+    // Dependency order: children before the rows they reference
+    private static final List<Step> STEPS = List.of(
+            new Step("payments", "id", "user_id"),
+            new Step("subscriptions", "id", "user_id"),
+            new Step("activity_logs", "id", "user_id"),
+            new Step("user_activity_stats", "user_id", "user_id"),
+            new Step("users", "id", "id"));
+
+    private static final List<Step> CHILD_STEPS = STEPS.subList(0, STEPS.size() - 1);
+    private static final Step USERS_STEP = STEPS.get(STEPS.size() - 1);
+    private static final int USERS_ATTEMPTS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${iqfit.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${iqfit.purge.pause-ms:20}")
+    private long pauseMs;
+
+    @Value("${iqfit.purge.keep-finished:50}")
+    private int keepFinished;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private ExecutorService runner;
+
+    private final class Job {
+        final long id = nextId.incrementAndGet();
+        final String type;
+        final Long userId;
+        final LocalDateTime queuedAt = LocalDateTime.now();
+        final Map<String, Long> deleted = new LinkedHashMap<>();
+        volatile String status = "QUEUED";
+        volatile String currentTable;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+        volatile boolean cancelRequested;
+
+        Job(String type, Long userId) {
+            this.type = type;
+            this.userId = userId;
+        }
+
+        boolean active() {
+            return "QUEUED".equals(status) || "RUNNING".equals(status);
+        }
+
+        synchronized void addDeleted(String table, long rows) {
+            deleted.merge(table, rows, Long::sum);
+        }
+
+        synchronized PurgeJobStatus toStatus() {
+            long total = deleted.values().stream().mapToLong(Long::longValue).sum();
+            return new PurgeJobStatus(id, type, userId, status, currentTable, new LinkedHashMap<>(deleted), total,
+                    queuedAt, startedAt, finishedAt, error);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "purge-jobs");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(job -> job.cancelRequested = true);
+        runner.shutdownNow();
+    }
+
+    public PurgeJobStatus purgeAll() {
+        return submit(PURGE_ALL, null);
+    }
+
+    public PurgeJobStatus deleteUser(Long userId) {
+        return submit(DELETE_USER, userId);
+    }
+
+    public Optional<PurgeJobStatus> status(long jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::toStatus);
+    }
+
+    // Newest first
+    public List<PurgeJobStatus> list() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparingLong((Job job) -> job.id).reversed())
+                .map(Job::toStatus)
+                .toList();
+    }
+
+    // Asks the job to stop; a queued job is cancelled before it starts
+    public Optional<PurgeJobStatus> cancel(long jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelRequested = true;
+        return Optional.of(job.toStatus());
+    }
+
+    private synchronized PurgeJobStatus submit(String type, Long userId) {
+        for (Job job : jobs.values()) {
+            if (job.active() && !job.cancelRequested && job.type.equals(type)
+                    && (userId == null || userId.equals(job.userId))) {
+                return job.toStatus();
+            }
+        }
+        pruneFinished();
+        Job job = new Job(type, userId);
+        jobs.put(job.id, job);
+        runner.execute(() -> run(job));
+        log.info("Purge job {} queued: {}{}", job.id, type, userId == null ? "" : " user " + userId);
+        return job.toStatus();
+    }
+
+    private void run(Job job) {
+        if (job.cancelRequested) {
+            finish(job, "CANCELLED", null);
+            return;
+        }
+        job.startedAt = LocalDateTime.now();
+        job.status = "RUNNING";
+        long started = System.currentTimeMillis();
+        try {
+            for (Step step : CHILD_STEPS) {
+                runStep(job, step);
+            }
+            deleteUsers(job);
+            finish(job, job.cancelRequested ? "CANCELLED" : "COMPLETED", null);
+        } catch (RuntimeException e) {
+            log.error("Purge job {} failed on {}", job.id, job.currentTable, e);
+            finish(job, "FAILED", NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } finally {
+            refreshDerivedState(job);
+        }
+        log.info("Purge job {} {}: {} in {} ms", job.id, job.status, job.deleted, System.currentTimeMillis() - started);
+    }
+
+    private void runStep(Job job, Step step) {
+        if (job.cancelRequested) {
+            return;
+        }
+        job.currentTable = step.table();
+        job.addDeleted(step.table(), 0);
+        deleteInChunks(job, step);
+    }
+
+    private void deleteUsers(Job job) {
+        for (int attempt = 1; !job.cancelRequested; attempt++) {
+            // Whatever was inserted for these users since their step ran
+            for (Step step : CHILD_STEPS) {
+                runStep(job, step);
+            }
+            try {
+                runStep(job, USERS_STEP);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= USERS_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Purge job {}: rows were added for the users being deleted, sweeping again", job.id);
+            }
+        }
+    }
+
+    private void deleteInChunks(Job job, Step step) {
+        String filter = job.userId == null ? "" : step.userColumn() + " = ? AND ";
+        String boundarySql = "SELECT " + step.key() + " FROM " + step.table() + " WHERE " + filter + step.key()
+                + " > ? ORDER BY " + step.key() + " LIMIT 1 OFFSET ?";
+        String maxSql = "SELECT MAX(" + step.key() + ") FROM " + step.table() + " WHERE " + filter + step.key() + " > ?";
+        String deleteSql = "DELETE FROM " + step.table() + " WHERE " + filter + step.key() + " > ? AND " + step.key()
+                + " <= ?";
+
+        long after = 0L;
+        while (!job.cancelRequested) {
+            // Upper key of the next chunk; the last (short) chunk ends at the current maximum
+            List<Long> boundary = jdbcTemplate.queryForList(boundarySql, Long.class, args(job, after, chunkSize - 1L));
+            Long upper = boundary.isEmpty()
+                    ? jdbcTemplate.queryForObject(maxSql, Long.class, args(job, after))
+                    : boundary.get(0);
+            if (upper == null) {
+                return;
+            }
+            int rows = jdbcTemplate.update(deleteSql, args(job, after, upper));
+            job.addDeleted(step.table(), rows);
+            meterRegistry.counter("iqfit.purge.rows", "table", step.table()).increment(rows);
+            if (boundary.isEmpty()) {
+                return;
+            }
+            after = upper;
+            pause();
+        }
+    }
+
+    private static Object[] args(Job job, Object... values) {
+        List<Object> args = new ArrayList<>(values.length + 1);
+        if (job.userId != null) {
+            args.add(job.userId);
+        }
+        args.addAll(List.of(values));
+        return args.toArray();
+    }
+
+    private void finish(Job job, String status, String error) {
+        job.error = error;
+        job.currentTable = null;
+        job.finishedAt = LocalDateTime.now();
+        job.status = status;
+    }
+
+    private void refreshDerivedState(Job job) {
+        PurgeJobStatus result = job.toStatus();
+        if (result.totalDeleted() == 0) {
+            return;
+        }
+        // The deletes bypass Hibernate, so cached User entities would outlive their rows
+        if (job.userId == null) {
+            entityManagerFactory.getCache().evict(User.class);
+        } else {
+            entityManagerFactory.getCache().evict(User.class, job.userId);
+        }
+        if (result.deleted().getOrDefault("activity_logs", 0L) > 0) {
+            recommendationService.rebuildInBackground();
+            leaderboardService.rebuildInBackground();
+        }
+        dashboardService.resync();
+    }
+
+    private void pruneFinished() {
+        List<Job> finished = jobs.values().stream()
+                .filter(job -> !job.active())
+                .sorted(Comparator.comparingLong((Job job) -> job.id))
+                .toList();
+        for (int i = 0; i < finished.size() - keepFinished + 1; i++) {
+            jobs.remove(finished.get(i).id);
+        }
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Purge job interrupted");
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package jar.service;
+
+import jar.dto.ActivityEvent;
+import jar.dto.ContentRecommendation;
+import jar.dto.ContentRecord;
+import jar.repository.ActivityLogRepository;
+import jar.repository.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Item-to-item content recommendations built from COMPLETED activity.
+// Two items are related when the same users complete both; similarity is the cosine of their
+// completion sets, co(i, j) / sqrt(n(i) * n(j)), counting each (user, content) pair once.
+// Per user the model keeps every distinct completed id (a sorted long[], so a repeat is never
+// counted again) and, separately, the most recent max-history of them. A new completion is paired
+// only with that recent window, so co(i, j) covers the users who completed both within max-history
+// items of each other; each pair is still counted at most once, so co(i, j) <= min(n(i), n(j)) and
+// the cosine stays within [0, 1]. Counts are ints in LongIntHashMaps, so no boxed pair entries.
+//
+// The model is built in the background at startup and then maintained incrementally:
+// ActivityIngestService hands every committed COMPLETED event to recordCompleted(), which
+// updates the counts and marks the touched items; refreshNeighbours() re-ranks their top
+// neighbours a few seconds later. A request reads the user's last seed-items completions and
+// merges their precomputed neighbour lists, so its cost is bounded by seed-items x neighbours
+// no matter how much activity exists. Users without history get the most completed items.
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final int POPULAR_SIZE = 100;
+    private static final long[] NO_HISTORY = new long[0];
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContentCatalogCache contentCatalogCache;
+
+    @Value("${iqfit.recommendations.neighbours:20}")
+    private int neighbourCount;
+
+    @Value("${iqfit.recommendations.max-history:50}")
+    private int maxHistory;
+
+    @Value("${iqfit.recommendations.seed-items:10}")
+    private int seedItems;
+
+    @Value("${iqfit.recommendations.rebuild-chunk-size:1000}")
+    private int rebuildChunkSize;
+
+    // Guards the counts in model, dirty and pending
+    private final Object lock = new Object();
+    private final Object rebuildLock = new Object();
+
+    private volatile Model model = new Model();
+    private volatile Map<Long, Ranked> neighbours = new ConcurrentHashMap<>();
+    private volatile Ranked popular = Ranked.EMPTY;
+
+    private final Set<Long> dirty = new HashSet<>();
+    // Non-null while a rebuild is reading activity_logs: events to replay onto the new model
+    private List<long[]> pending;
+
+    private static final class Model {
+        // Both replaced on write, never mutated, so requests read them without the lock.
+        // user id -> every distinct completed content id, sorted
+        final Map<Long, long[]> completed = new ConcurrentHashMap<>();
+        // user id -> the most recent maxHistory of those, oldest first
+        final Map<Long, long[]> histories = new ConcurrentHashMap<>();
+        // content id -> (content id -> users who completed both)
+        final Map<Long, LongIntHashMap> coCounts = new HashMap<>();
+        // content id -> users who completed it
+        final LongIntHashMap itemCounts = new LongIntHashMap(1024);
+    }
+
+    // Ids with scores, best first
+    record Ranked(long[] ids, float[] scores) {
+        static final Ranked EMPTY = new Ranked(new long[0], new float[0]);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuildInBackground();
+    }
+
+    // Rebuilds on a separate thread so startup (or the caller) is not held up by a full scan
+    public void rebuildInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Recommendation model rebuild failed", e);
+            }
+        }, "recommendation-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Re-reads every COMPLETED activity, chunk of users by chunk of users, into a fresh model and
+    // swaps it in. Events recorded meanwhile are applied to both models, so nothing is lost.
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.currentTimeMillis();
+            synchronized (lock) {
+                pending = new ArrayList<>();
+            }
+
+            Model fresh = new Model();
+            long afterId = 0L;
+            while (true) {
+                List<Long> userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, rebuildChunkSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : activityLogRepository.findCompletedPairs(userIds)) {
+                    apply(fresh, (Long) row[0], (Long) row[1], false);
+                }
+                afterId = userIds.get(userIds.size() - 1);
+            }
+
+            // Nothing else touches fresh until it is published, so rank it without the lock
+            Map<Long, Ranked> ranked = new ConcurrentHashMap<>();
+            for (Long item : fresh.coCounts.keySet()) {
+                ranked.put(item, rankNeighbours(fresh, item));
+            }
+
+            synchronized (lock) {
+                dirty.clear();
+                for (long[] event : pending) {
+                    apply(fresh, event[0], event[1], true);
+                }
+                pending = null;
+                model = fresh;
+                neighbours = ranked;
+                popular = rankPopular(fresh);
+            }
+            log.info("Recommendation model rebuilt: {} items, {} users with history in {} ms",
+                    fresh.itemCounts.size(), fresh.completed.size(), System.currentTimeMillis() - started);
+        }
+    }
+
+    // Called after the events' transaction has committed
+    public void recordCompleted(List<ActivityEvent> events) {
+        synchronized (lock) {
+            for (ActivityEvent event : events) {
+                if (!"COMPLETED".equals(event.status())) {
+                    continue;
+                }
+                apply(model, event.userId(), event.contentId(), true);
+                if (pending != null) {
+                    pending.add(new long[] {event.userId(), event.contentId()});
+                }
+            }
+        }
+    }
+
+    // Re-ranks the neighbour lists of items whose counts changed since the last run
+    @Scheduled(fixedDelayString = "${iqfit.recommendations.refresh-interval-ms:5000}")
+    public void refreshNeighbours() {
+        synchronized (lock) {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            Model current = model;
+            for (Long item : dirty) {
+                neighbours.put(item, rankNeighbours(current, item));
+            }
+            dirty.clear();
+            popular = rankPopular(current);
+        }
+    }
+
+    // Up to limit items the user has not completed yet; PREMIUM content only when premium is true
+    public List<ContentRecommendation> recommend(Long userId, boolean premium, int limit) {
+        Model current = model;
+        long[] history = current.histories.getOrDefault(userId, NO_HISTORY);
+        long[] completed = current.completed.getOrDefault(userId, NO_HISTORY);
+        Map<Long, Ranked> lists = neighbours;
+
+        LongFloatHashMap scores = new LongFloatHashMap(seedItems * neighbourCount);
+        for (int i = Math.max(0, history.length - seedItems); i < history.length; i++) {
+            Ranked related = lists.get(history[i]);
+            if (related != null) {
+                for (int n = 0; n < related.ids().length; n++) {
+                    scores.addTo(related.ids()[n], related.scores()[n]);
+                }
+            }
+        }
+
+        TopK top = new TopK(limit);
+        scores.forEach((id, score) -> {
+            if (eligible(id, completed, premium).isPresent()) {
+                top.offer(id, score);
+            }
+        });
+
+        List<ContentRecommendation> result = new ArrayList<>(limit);
+        Set<Long> chosen = new HashSet<>();
+        Ranked best = top.toRanked();
+        for (int i = 0; i < best.ids().length; i++) {
+            float score = best.scores()[i];
+            contentCatalogCache.find(best.ids()[i]).ifPresent(content -> {
+                chosen.add(content.id());
+                result.add(toRecommendation(content, score));
+            });
+        }
+
+        // Top up with popular items (cold start, or too few neighbours)
+        Ranked fallback = popular;
+        for (int i = 0; i < fallback.ids().length && result.size() < limit; i++) {
+            long id = fallback.ids()[i];
+            if (!chosen.contains(id)) {
+                Optional<ContentRecord> content = eligible(id, completed, premium);
+                if (content.isPresent()) {
+                    chosen.add(id);
+                    result.add(toRecommendation(content.get(), fallback.scores()[i]));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Adds one (user, content) completion; repeats of a pair the user already has are ignored
+    private void apply(Model target, long userId, long contentId, boolean markDirty) {
+        long[] completed = target.completed.getOrDefault(userId, NO_HISTORY);
+        int at = Arrays.binarySearch(completed, contentId);
+        if (at >= 0) {
+            return;
+        }
+        int insertAt = -at - 1;
+        long[] nextCompleted = new long[completed.length + 1];
+        System.arraycopy(completed, 0, nextCompleted, 0, insertAt);
+        nextCompleted[insertAt] = contentId;
+        System.arraycopy(completed, insertAt, nextCompleted, insertAt + 1, completed.length - insertAt);
+        target.completed.put(userId, nextCompleted);
+
+        long[] history = target.histories.getOrDefault(userId, NO_HISTORY);
+        LongIntHashMap row = target.coCounts.computeIfAbsent(contentId, k -> new LongIntHashMap());
+        for (long other : history) {
+            row.addTo(other, 1);
+            target.coCounts.computeIfAbsent(other, k -> new LongIntHashMap()).addTo(contentId, 1);
+            if (markDirty) {
+                dirty.add(other);
+            }
+        }
+        target.itemCounts.addTo(contentId, 1);
+        if (markDirty) {
+            dirty.add(contentId);
+        }
+
+        // Keep the most recent maxHistory items as seeds; older pairs stay counted
+        int keep = Math.min(history.length, maxHistory - 1);
+        long[] next = Arrays.copyOfRange(history, history.length - keep, history.length + 1);
+        next[keep] = contentId;
+        target.histories.put(userId, next);
+    }
+
+    private Ranked rankNeighbours(Model source, long item) {
+        LongIntHashMap row = source.coCounts.get(item);
+        if (row == null) {
+            return Ranked.EMPTY;
+        }
+        int itemCount = source.itemCounts.get(item, 0);
+        TopK top = new TopK(neighbourCount);
+        row.forEach((other, together) -> {
+            double denominator = Math.sqrt((double) itemCount * source.itemCounts.get(other, 0));
+            if (denominator > 0) {
+                top.offer(other, (float) (together / denominator));
+            }
+        });
+        return top.toRanked();
+    }
+
+    private Ranked rankPopular(Model source) {
+        TopK top = new TopK(POPULAR_SIZE);
+        source.itemCounts.forEach((item, count) -> top.offer(item, count));
+        return top.toRanked();
+    }
+
+    // Still in the catalog, not completed already, and within the user's entitlement
+    private Optional<ContentRecord> eligible(long id, long[] completed, boolean premium) {
+        if (Arrays.binarySearch(completed, id) >= 0) {
+            return Optional.empty();
+        }
+        return contentCatalogCache.find(id)
+                .filter(content -> premium || !"PREMIUM".equals(content.accessLevel()));
+    }
+
+    private static ContentRecommendation toRecommendation(ContentRecord content, float score) {
+        return new ContentRecommendation(content.id(), content.title(), content.contentType(),
+                content.category(), content.difficultyLevel(), content.accessLevel(),
+                content.durationMinutes(), score);
+    }
+
+    // Keeps the k highest-scoring ids seen, in a sorted array (k is small); on equal scores the
+    // one offered first stays ahead
+    static final class TopK {
+        private final long[] ids;
+        private final float[] scores;
+        private int size;
+
+        TopK(int k) {
+            ids = new long[k];
+            scores = new float[k];
+        }
+
+        // Returns true when the id made it into the current top k
+        boolean offer(long id, float score) {
+            if (ids.length == 0 || (size == ids.length && score <= scores[size - 1])) {
+                return false;
+            }
+            int pos = size == ids.length ? size - 1 : size++;
+            while (pos > 0 && scores[pos - 1] < score) {
+                ids[pos] = ids[pos - 1];
+                scores[pos] = scores[pos - 1];
+                pos--;
+            }
+            ids[pos] = id;
+            scores[pos] = score;
+            return true;
+        }
+
+        Ranked toRanked() {
+            return new Ranked(Arrays.copyOf(ids, size), Arrays.copyOf(scores, size));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package jar.service;
+
+import jar.dto.RevenueAnalytics;
+import jar.model.Plan;
+import jar.model.RevenueDailyRollup;
+import jar.repository.PaymentRepository;
+import jar.repository.PlanRepository;
+import jar.repository.RevenueDailyRollupRepository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Maintains revenue_daily_rollups and answers revenue analytics from it,
+// so the dashboard cost depends on the date range rather than the lifetime payment count.
+@Service
+public class RevenueService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueService.class);
+
+    private static final String UNKNOWN_METHOD = "UNKNOWN";
+    private static final double DAYS_PER_MONTH = 30.0;
+
+    @Autowired
+    private RevenueDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate newRowTx;
+    private TransactionTemplate dayTx;
+
+    @PostConstruct
+    void init() {
+        newRowTx = new TransactionTemplate(transactionManager);
+        newRowTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        dayTx = new TransactionTemplate(transactionManager);
+    }
+
+    // Adds one payment (or a pre-aggregated group of payments) to its rollup row
+    @Transactional
+    public void record(LocalDate day, Long planId, String paymentMethod, double amount, long count) {
+        String method = paymentMethod == null || paymentMethod.isBlank() ? UNKNOWN_METHOD : paymentMethod;
+        if (rollupRepository.addTo(day, planId, method, amount, count) == 0) {
+            ensureRow(day, planId, method);
+            rollupRepository.addTo(day, planId, method, amount, count);
+        }
+    }
+
+    // Creates the zero row for a new key in its own transaction. If a concurrent payment
+    // created it first, the unique key rejects ours and we simply use theirs.
+    private void ensureRow(LocalDate day, Long planId, String method) {
+        try {
+            newRowTx.executeWithoutResult(status -> {
+                if (!rollupRepository.existsByRevenueDateAndPlanIdAndPaymentMethod(day, planId, method)) {
+                    RevenueDailyRollup row = new RevenueDailyRollup();
+                    row.setRevenueDate(day);
+                    row.setPlanId(planId);
+                    row.setPaymentMethod(method);
+                    rollupRepository.saveAndFlush(row);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race; the row exists now
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public RevenueAnalytics analytics(LocalDate from, LocalDate to) {
+        Map<Long, Plan> plans = planRepository.findAll().stream()
+                .collect(Collectors.toMap(Plan::getId, Function.identity()));
+
+        double total = 0;
+        long count = 0;
+        Map<LocalDate, double[]> byDay = new TreeMap<>();
+        Map<String, double[]> byPlan = new TreeMap<>();
+        Map<String, double[]> byMethod = new TreeMap<>();
+
+        for (RevenueDailyRollup row : rollupRepository.findByRevenueDateBetweenOrderByRevenueDate(from, to)) {
+            total += row.getTotalAmount();
+            count += row.getPaymentCount();
+            add(byDay.computeIfAbsent(row.getRevenueDate(), k -> new double[2]), row);
+            Plan plan = plans.get(row.getPlanId());
+            add(byPlan.computeIfAbsent(plan != null ? plan.getPlanName() : "Plan " + row.getPlanId(), k -> new double[2]), row);
+            add(byMethod.computeIfAbsent(row.getPaymentMethod(), k -> new double[2]), row);
+        }
+
+        List<RevenueAnalytics.DayTotal> days = new ArrayList<>();
+        byDay.forEach((day, sums) -> days.add(new RevenueAnalytics.DayTotal(day, sums[0], (long) sums[1])));
+
+        return new RevenueAnalytics(from, to, total, count, monthlyRecurringRevenue(to, plans),
+                days, groupTotals(byPlan), groupTotals(byMethod));
+    }
+
+    // A payment made on day d for a plan lasting D days is still running on "asOf" when d > asOf - D.
+    // Each running payment contributes amount * 30 / D. Only the last max(D) days of rollups are read.
+    private double monthlyRecurringRevenue(LocalDate asOf, Map<Long, Plan> plans) {
+        int longestPaidPlan = plans.values().stream()
+                .filter(p -> p.getPrice() != null && p.getPrice() > 0 && p.getDurationDays() != null)
+                .mapToInt(Plan::getDurationDays)
+                .max()
+                .orElse(0);
+        if (longestPaidPlan == 0) {
+            return 0;
+        }
+
+        double mrr = 0;
+        for (RevenueDailyRollup row : rollupRepository.findByRevenueDateBetweenOrderByRevenueDate(asOf.minusDays(longestPaidPlan - 1L), asOf)) {
+            Plan plan = plans.get(row.getPlanId());
+            if (plan == null || plan.getDurationDays() == null || plan.getDurationDays() <= 0 || row.getTotalAmount() <= 0) {
+                continue;
+            }
+            if (row.getRevenueDate().isAfter(asOf.minusDays(plan.getDurationDays()))) {
+                mrr += row.getTotalAmount() * DAYS_PER_MONTH / plan.getDurationDays();
+            }
+        }
+        return mrr;
+    }
+
+    // Rebuilds the rollups from the payments table, one day per transaction. Each transaction locks
+    // the day's rollup rows, re-sums that day's payments and overwrites the rows with the result, so
+    // readers see either the old or the new totals of a day, never a partial rebuild. A payment made
+    // meanwhile either committed before the lock (and is in the sum) or waits for it in record()
+    // and is added on top afterwards, so nothing is counted twice or lost.
+    // Rows whose key no longer has payments are zeroed rather than deleted, because a concurrent
+    // record() may be about to increment them. Returns the number of rollup rows written.
+    public synchronized int backfill() {
+        LocalDate first = null;
+        LocalDate last = null;
+        for (Object[] range : List.of(paymentRepository.findDateRange().get(0), rollupRepository.findDateRange().get(0))) {
+            if (range[0] == null) {
+                continue;
+            }
+            LocalDate from = toDate(range[0]);
+            LocalDate to = toDate(range[1]);
+            first = first == null || from.isBefore(first) ? from : first;
+            last = last == null || to.isAfter(last) ? to : last;
+        }
+        if (first == null) {
+            return 0;
+        }
+
+        long started = System.currentTimeMillis();
+        int rows = 0;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            rows += replaceDay(day);
+        }
+        log.info("Revenue rollups rebuilt from payments for {} .. {} ({} rows written) in {} ms", first, last, rows,
+                System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    private int replaceDay(LocalDate day) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return dayTx.execute(status -> {
+                    Map<String, RevenueDailyRollup> existing = new HashMap<>();
+                    for (RevenueDailyRollup row : rollupRepository.lockDay(day)) {
+                        existing.put(row.getPlanId() + "|" + row.getPaymentMethod(), row);
+                    }
+
+                    // key -> row with the recomputed totals (existing rows are reused and overwritten)
+                    Map<String, RevenueDailyRollup> recomputed = new HashMap<>();
+                    for (Object[] sum : paymentRepository.sumByPlanAndMethod(day.atStartOfDay(),
+                            day.plusDays(1).atStartOfDay())) {
+                        Long planId = (Long) sum[0];
+                        String method = sum[1] == null || ((String) sum[1]).isBlank() ? UNKNOWN_METHOD : (String) sum[1];
+                        String key = planId + "|" + method;
+                        RevenueDailyRollup row = recomputed.get(key);
+                        if (row == null) {
+                            row = existing.remove(key);
+                            if (row == null) {
+                                row = new RevenueDailyRollup();
+                                row.setRevenueDate(day);
+                                row.setPlanId(planId);
+                                row.setPaymentMethod(method);
+                            }
+                            row.setTotalAmount(0);
+                            row.setPaymentCount(0);
+                            recomputed.put(key, row);
+                        }
+                        row.setTotalAmount(row.getTotalAmount() + (sum[2] == null ? 0 : ((Number) sum[2]).doubleValue()));
+                        row.setPaymentCount(row.getPaymentCount() + ((Number) sum[3]).longValue());
+                    }
+                    for (RevenueDailyRollup stale : existing.values()) {
+                        stale.setTotalAmount(0);
+                        stale.setPaymentCount(0);
+                    }
+                    rollupRepository.saveAll(recomputed.values());
+                    return recomputed.size() + existing.size();
+                });
+            } catch (DataIntegrityViolationException e) {
+                // A payment created one of the day's new rows first; redo the day with it locked
+                if (attempt >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static LocalDate toDate(Object value) {
+        return value instanceof LocalDateTime dateTime ? dateTime.toLocalDate() : (LocalDate) value;
+    }
+
+    private static void add(double[] sums, RevenueDailyRollup row) {
+        sums[0] += row.getTotalAmount();
+        sums[1] += row.getPaymentCount();
+    }
+
+    private static List<RevenueAnalytics.GroupTotal> groupTotals(Map<String, double[]> groups) {
+        List<RevenueAnalytics.GroupTotal> totals = new ArrayList<>();
+        groups.forEach((key, sums) -> totals.add(new RevenueAnalytics.GroupTotal(key, sums[0], (long) sums[1])));
+        return totals;
+    }
+}
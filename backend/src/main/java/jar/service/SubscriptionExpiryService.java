@@ -0,0 +1,143 @@
+package jar.service;
+
+import jar.repository.SubscriptionRepository;
+import jar.repository.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+// Deactivates lapsed subscriptions and clears User.isPremium.
+// A subscription is active through its endDate and lapses at the start of the following day.
+// Instead of polling, upcoming end dates sit in a min-heap and a single timer is armed for the
+// earliest one; makePayment adds new dates with track(). Each run works through due rows in
+// bounded chunks of set-based UPDATEs.
+@Service
+public class SubscriptionExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionExpiryService.class);
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${iqfit.subscriptions.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    private final PriorityQueue<LocalDate> upcoming = new PriorityQueue<>();
+    private final Set<LocalDate> queued = new HashSet<>();
+
+    private ScheduledFuture<?> timer;
+    private LocalDate timerFor;
+
+    // Catch up on anything that lapsed while the app was down, then arm the timer
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        expireDue();
+        List<LocalDate> dates = subscriptionRepository.findUpcomingEndDates(LocalDate.now());
+        synchronized (this) {
+            for (LocalDate date : dates) {
+                enqueue(date);
+            }
+            armTimer();
+        }
+    }
+
+    // Registers the end date of a newly created subscription
+    public synchronized void track(LocalDate endDate) {
+        if (endDate != null && enqueue(endDate)) {
+            armTimer();
+        }
+    }
+
+    // Runs until no due subscription is left; returns the number deactivated
+    public int expireDue() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        LocalDate today = LocalDate.now();
+        int total = 0;
+
+        while (true) {
+            Integer expired = tx.execute(status -> {
+                List<Long> ids = subscriptionRepository.findDueIds(today, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                List<Long> userIds = subscriptionRepository.findUserIdsByIds(ids);
+                subscriptionRepository.deactivate(ids);
+                userRepository.clearPremiumWithoutActiveSubscription(userIds);
+                return ids.size();
+            });
+            if (expired == null || expired == 0) {
+                break;
+            }
+            total += expired;
+        }
+
+        if (total > 0) {
+            log.info("Expired {} subscriptions", total);
+        }
+        return total;
+    }
+
+    private void fire() {
+        try {
+            expireDue();
+        } finally {
+            synchronized (this) {
+                LocalDate today = LocalDate.now();
+                while (!upcoming.isEmpty() && upcoming.peek().isBefore(today)) {
+                    queued.remove(upcoming.poll());
+                }
+                timer = null;
+                timerFor = null;
+                armTimer();
+            }
+        }
+    }
+
+    private boolean enqueue(LocalDate date) {
+        if (queued.add(date)) {
+            upcoming.add(date);
+            return true;
+        }
+        return false;
+    }
+
+    // (Re)schedules the single timer for the earliest tracked end date. Caller holds the lock.
+    private void armTimer() {
+        LocalDate next = upcoming.peek();
+        if (next == null || next.equals(timerFor)) {
+            return;
+        }
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        timerFor = next;
+        timer = taskScheduler.schedule(this::fire,
+                next.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,89 @@
+package jar.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keyed token buckets (ratePerMinute tokens per minute, up to burst at once) without locks.
+// Each bucket is a single AtomicLong holding its "theoretical arrival time" (GCRA): a request is
+// allowed while that time is at most (burst - 1) emission intervals ahead of now, and pushes it
+// one interval further with a CAS. That is the same admission as a token bucket refilled
+// continuously, but with one word of state per key.
+//
+// Keys are spread over independent ConcurrentHashMap stripes, each capped at maxKeys / stripes
+// entries. A bucket whose arrival time is in the past is full again and carries no state, so
+// sweep() (and a stripe that reaches its cap) simply drops it. If a stripe is still full after
+// sweeping, new keys are refused rather than letting key-spraying grow the map without bound.
+public class TokenBucketLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxKeysPerStripe;
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketLimiter(double ratePerMinute, int burst, int maxKeys) {
+        this.intervalNanos = (long) (TimeUnit.MINUTES.toNanos(1) / Math.max(ratePerMinute, 1e-3));
+        this.toleranceNanos = intervalNanos * (Math.max(burst, 1) - 1L);
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    // Takes one token for key. Returns 0 when allowed, otherwise the seconds until the next token.
+    public long tryAcquire(String key) {
+        ConcurrentHashMap<String, AtomicLong> stripe = stripe(key);
+        long now = System.nanoTime();
+        AtomicLong bucket = stripe.get(key);
+        if (bucket == null) {
+            if (stripe.size() >= maxKeysPerStripe) {
+                sweep(stripe, now);
+                if (stripe.size() >= maxKeysPerStripe) {
+                    return 1;
+                }
+            }
+            bucket = stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+            long ahead = start - now;
+            if (ahead > toleranceNanos) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(ahead - toleranceNanos + 999_999_999L));
+            }
+            if (bucket.compareAndSet(arrival, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    // Drops buckets that have refilled completely.
+    // A bucket removed while a concurrent caller takes a token from it only forgives that one token.
+    public void sweep() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            sweep(stripe, now);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private static void sweep(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        stripe.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripe(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+}
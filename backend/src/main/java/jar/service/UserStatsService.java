@@ -0,0 +1,164 @@
+package jar.service;
+
+import jar.model.UserActivityStats;
+import jar.repository.ActivityLogRepository;
+import jar.repository.UserActivityStatsRepository;
+import jar.repository.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Maintains the user_activity_stats projection behind GET /api/users/{id}/stats.
+@Service
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    @Autowired
+    private UserActivityStatsRepository statsRepository;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Creates the (all-zero) stats row for a brand new user
+    @Transactional
+    public void initializeFor(Long userId) {
+        if (!statsRepository.existsById(userId)) {
+            UserActivityStats stats = new UserActivityStats();
+            stats.setUserId(userId);
+            statsRepository.save(stats);
+        }
+    }
+
+    // Called in the same transaction that inserted the COMPLETED activity log(s).
+    // Users created before the stats table existed have no row yet; for them the row is
+    // seeded from activity_logs, which already includes the rows just inserted. A concurrent
+    // first completion may create the row in between; then only the delta is added to it.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCompleted(Long userId, String contentType, long delta) {
+        int updated;
+        switch (contentType == null ? "" : contentType) {
+            case "WORKOUT" -> updated = statsRepository.addWorkouts(userId, delta);
+            case "STUDY_TIP" -> updated = statsRepository.addStudySessions(userId, delta);
+            case "RECIPE" -> updated = statsRepository.addRecipesTried(userId, delta);
+            default -> {
+                return; // Not a tracked content type
+            }
+        }
+        if (updated == 0) {
+            UserActivityStats increment = new UserActivityStats();
+            apply(increment, contentType, delta);
+            statsRepository.insertOrAdd(countFromLogs(userId), increment);
+        }
+    }
+
+    // Called by the retention job in the transaction that deletes the user's archived COMPLETED rows.
+    // The live counters already include them; only the archived baseline moves. A user without a
+    // row gets one counted from activity_logs first, while those rows are still there.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordArchived(Long userId, long workouts, long studySessions, long recipesTried) {
+        if (statsRepository.addArchived(userId, workouts, studySessions, recipesTried) == 0) {
+            UserActivityStats increment = new UserActivityStats();
+            increment.setArchivedWorkouts(workouts);
+            increment.setArchivedStudySessions(studySessions);
+            increment.setArchivedRecipesTried(recipesTried);
+            UserActivityStats stats = countFromLogs(userId);
+            stats.setArchivedWorkouts(workouts);
+            stats.setArchivedStudySessions(studySessions);
+            stats.setArchivedRecipesTried(recipesTried);
+            statsRepository.insertOrAdd(stats, increment);
+        }
+    }
+
+    // One primary-key read; falls back to a single grouped query for users without a row
+    @Transactional(readOnly = true)
+    public UserActivityStats getStats(Long userId) {
+        return statsRepository.findById(userId).orElseGet(() -> countFromLogs(userId));
+    }
+
+    // Recomputes every user's row from activity_logs, one chunk of users per transaction,
+    // so counters can be repaired after drift without a long-running lock.
+    public int rebuildAll(int chunkSize) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long afterId = 0L;
+        int processed = 0;
+
+        while (true) {
+            List<Long> userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            tx.executeWithoutResult(status -> rebuildChunk(userIds));
+            processed += userIds.size();
+            afterId = userIds.get(userIds.size() - 1);
+        }
+
+        log.info("Rebuilt activity stats for {} users", processed);
+        return processed;
+    }
+
+    private void rebuildChunk(List<Long> userIds) {
+        Map<Long, UserActivityStats> byUser = new HashMap<>();
+        for (Long userId : userIds) {
+            UserActivityStats stats = new UserActivityStats();
+            stats.setUserId(userId);
+            byUser.put(userId, stats);
+        }
+
+        for (Object[] row : activityLogRepository.countCompletedByUserAndContentType(userIds)) {
+            apply(byUser.get((Long) row[0]), (String) row[1], (Long) row[2]);
+        }
+
+        // Merge onto existing rows so the chunk is written as updates rather than delete + insert
+        Map<Long, UserActivityStats> existing = statsRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserActivityStats::getUserId, Function.identity()));
+        for (UserActivityStats fresh : byUser.values()) {
+            UserActivityStats target = existing.getOrDefault(fresh.getUserId(), fresh);
+            // activity_logs no longer holds archived rows, so their share is added back
+            target.setWorkouts(fresh.getWorkouts() + target.getArchivedWorkouts());
+            target.setStudySessions(fresh.getStudySessions() + target.getArchivedStudySessions());
+            target.setRecipesTried(fresh.getRecipesTried() + target.getArchivedRecipesTried());
+            statsRepository.save(target);
+        }
+    }
+
+    private UserActivityStats countFromLogs(Long userId) {
+        UserActivityStats stats = new UserActivityStats();
+        stats.setUserId(userId);
+        for (Object[] row : activityLogRepository.countCompletedByContentType(userId)) {
+            apply(stats, (String) row[0], (Long) row[1]);
+        }
+        return stats;
+    }
+
+    private void apply(UserActivityStats stats, String contentType, long count) {
+        if (contentType == null) {
+            return;
+        }
+        switch (contentType) {
+            case "WORKOUT" -> stats.setWorkouts(count);
+            case "STUDY_TIP" -> stats.setStudySessions(count);
+            case "RECIPE" -> stats.setRecipesTried(count);
+            default -> { }
+        }
+    }
+}
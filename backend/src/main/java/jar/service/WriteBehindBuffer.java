@@ -0,0 +1,111 @@
+package jar.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Bounded in-memory queue drained by one background thread.
+// Items are handed to the flush callback in batches, either once batchSize items are waiting
+// or maxDelayMs after the first item of a batch arrived, whichever comes first.
+// offer() waits at most offerTimeoutMs for space, so a full buffer pushes back on callers
+// instead of growing without bound.
+public class WriteBehindBuffer<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long maxDelayMs;
+    private final long offerTimeoutMs;
+    private final Consumer<List<T>> flush;
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    public WriteBehindBuffer(String name, int capacity, int batchSize, long maxDelayMs, long offerTimeoutMs,
+            Consumer<List<T>> flush) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.flush = flush;
+        this.flusher = new Thread(this::run, name + "-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Returns false when the buffer stayed full for offerTimeoutMs (caller should shed the request)
+    public boolean offer(T item) {
+        if (!running) {
+            return false;
+        }
+        try {
+            return queue.offer(item, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Treat as shutdown: stop accepting, but still drain what is queued
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flushQuietly(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flushQuietly(List<T> batch) {
+        try {
+            flush.accept(List.copyOf(batch));
+        } catch (RuntimeException e) {
+            log.error("Dropping {} buffered items after flush failure", batch.size(), e);
+        }
+    }
+
+    // Stops accepting items and flushes whatever is still queued
+    @Override
+    public void close() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
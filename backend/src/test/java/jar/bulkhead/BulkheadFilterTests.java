@@ -0,0 +1,124 @@
+package jar.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// A fixed pool stands in for Tomcat's workers (server.tomcat.threads.max = WORKERS). Hot
+// content-reads requests block inside the chain until released; the other groups and unlimited
+// endpoints must still be served while that flood is going on.
+class BulkheadFilterTests {
+
+	private static final int WORKERS = 20;
+
+	private final CountDownLatch hotRelease = new CountDownLatch(1);
+	private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+
+	@AfterEach
+	void tearDown() {
+		hotRelease.countDown();
+		workers.shutdownNow();
+	}
+
+	@Test
+	void floodOnOneGroupDoesNotStarveTheOthers() throws Exception {
+		BulkheadFilter filter = filter(environment());
+		FilterChain chain = (request, response) -> {
+			if (((MockHttpServletRequest) request).getRequestURI().startsWith("/api/content")) {
+				try {
+					hotRelease.await(30, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			((MockHttpServletResponse) response).setStatus(200);
+		};
+
+		List<Future<Integer>> hot = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			hot.add(workers.submit(() -> call(filter, chain, "GET", "/api/content")));
+		}
+		Future<Integer> login = workers.submit(() -> call(filter, chain, "POST", "/api/users/login"));
+		Future<Integer> activity = workers.submit(() -> call(filter, chain, "POST", "/api/activity"));
+		Future<Integer> unlimited = workers.submit(() -> call(filter, chain, "GET", "/api/messages"));
+
+		assertEquals(200, login.get(5, TimeUnit.SECONDS));
+		assertEquals(200, activity.get(5, TimeUnit.SECONDS));
+		assertEquals(200, unlimited.get(5, TimeUnit.SECONDS));
+
+		// Only max-concurrent + max-queue hot requests ever held a worker; the rest were shed
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (hot.stream().filter(Future::isDone).count() < 92 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(92, hot.stream().filter(Future::isDone).count());
+		hotRelease.countDown();
+		int ok = 0;
+		int shed = 0;
+		for (Future<Integer> result : hot) {
+			int status = result.get(10, TimeUnit.SECONDS);
+			if (status == 200) {
+				ok++;
+			} else {
+				assertEquals(503, status);
+				shed++;
+			}
+		}
+		assertEquals(8, ok);
+		assertEquals(92, shed);
+	}
+
+	@Test
+	void startupFailsWhenTheBulkheadsCanHoldTooManyWorkers() {
+		MockEnvironment environment = environment()
+				.withProperty("iqfit.bulkheads.content-reads.max-queue", "64");
+		assertThrows(IllegalStateException.class, () -> filter(environment));
+	}
+
+	// 16 of the 20 workers may be held by bulkheads: 4 + 4 + 2 + 2 + 1 + 1 + 1 + 1
+	private static MockEnvironment environment() {
+		return new MockEnvironment()
+				.withProperty("server.tomcat.threads.max", String.valueOf(WORKERS))
+				.withProperty("iqfit.bulkheads.reserved-threads", "4")
+				.withProperty("iqfit.bulkheads.content-reads.max-concurrent", "4")
+				.withProperty("iqfit.bulkheads.content-reads.max-queue", "4")
+				.withProperty("iqfit.bulkheads.content-reads.max-wait-ms", "10000")
+				.withProperty("iqfit.bulkheads.auth.max-concurrent", "2")
+				.withProperty("iqfit.bulkheads.auth.max-queue", "2")
+				.withProperty("iqfit.bulkheads.activity-writes.max-concurrent", "1")
+				.withProperty("iqfit.bulkheads.activity-writes.max-queue", "1")
+				.withProperty("iqfit.bulkheads.admin.max-concurrent", "1")
+				.withProperty("iqfit.bulkheads.admin.max-queue", "1");
+	}
+
+	private static BulkheadFilter filter(MockEnvironment environment) {
+		BulkheadFilter filter = new BulkheadFilter();
+		ReflectionTestUtils.setField(filter, "environment", environment);
+		ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.invokeMethod(filter, "init");
+		return filter;
+	}
+
+	private static int call(BulkheadFilter filter, FilterChain chain, String method, String uri) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response.getStatus();
+	}
+}
@@ -0,0 +1,75 @@
+package jar.loadgen;
+
+import jar.dto.ContentImportResult;
+import jar.model.Content;
+import jar.model.Message;
+import jar.repository.ContentRepository;
+import jar.repository.MessageRepository;
+import jar.service.ContentImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Boots on a private H2 database with the loadgen profile at tiny volumes. The seed catalog is
+// written through Hibernate before the generator runs, so Hibernate already holds a pool of
+// content ids; inserts after the load must not collide with the generated rows.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:loadgen_tests;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"iqfit.loadgen.users=50",
+		"iqfit.loadgen.content=30",
+		"iqfit.loadgen.activity-logs=200",
+		"iqfit.loadgen.subscriptions=10",
+		"iqfit.loadgen.messages=10"
+})
+@ActiveProfiles("loadgen")
+class LoadDataGeneratorTests {
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@Autowired
+	private MessageRepository messageRepository;
+
+	@Autowired
+	private ContentImportService contentImportService;
+
+	@Test
+	void contentCanBeInsertedAfterTheLoad() throws Exception {
+		long before = contentRepository.count();
+
+		Content content = new Content();
+		content.setTitle("After load");
+		content.setContentType("WORKOUT");
+		content.setAccessLevel("FREE");
+		Content saved = contentRepository.save(content);
+		assertTrue(saved.getId() > 0);
+
+		String ndjson = "{\"title\":\"Bulk after load 1\",\"contentType\":\"RECIPE\"}\n"
+				+ "{\"title\":\"Bulk after load 2\",\"contentType\":\"STUDY_TIP\"}\n";
+		ContentImportResult result = contentImportService.importNdjson(
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(2, result.inserted());
+		assertEquals(0, result.failed());
+
+		assertEquals(before + 3, contentRepository.count());
+	}
+
+	@Test
+	void messagesCanBeInsertedAfterTheLoad() {
+		Message message = new Message();
+		message.setName("After load");
+		message.setEmail("after@iqfit.test");
+		message.setMessage("Hello");
+		assertTrue(messageRepository.save(message).getId() > 0);
+	}
+}
@@ -0,0 +1,115 @@
+package jar.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two embedded H2 databases stand in for the primary and a replica; each holds a single row
+// naming itself, so every query shows where its connection was routed.
+class ReplicaRoutingDataSourceTests {
+
+	private SimpleMeterRegistry meterRegistry;
+	private FlakyDataSource replica;
+	private ReplicaRoutingDataSource routing;
+	private JdbcTemplate jdbc;
+	private TransactionTemplate readWrite;
+	private TransactionTemplate readOnly;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = database("routing_primary", "primary");
+		replica = new FlakyDataSource(database("routing_replica", "replica"));
+		meterRegistry = new SimpleMeterRegistry();
+		routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), meterRegistry);
+
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		jdbc = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReadRouting.clear();
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplica() {
+		assertEquals("replica", readOnly.execute(status -> whereAmI()));
+		assertEquals("primary", readWrite.execute(status -> whereAmI()));
+		assertEquals("primary", whereAmI());
+		assertEquals(1.0, meterRegistry.get("iqfit.datasource.routed").tag("route", "replica-1").counter().count());
+	}
+
+	@Test
+	void pinnedThreadsReadFromThePrimary() {
+		ReadRouting.forcePrimary();
+		assertEquals("primary", readOnly.execute(status -> whereAmI()));
+		ReadRouting.clear();
+		assertEquals("replica", readOnly.execute(status -> whereAmI()));
+	}
+
+	@Test
+	void failingReplicaFallsBackUntilHealthy() {
+		replica.down = true;
+		assertEquals("primary", readOnly.execute(status -> whereAmI()));
+		assertFalse(routing.isHealthy("replica-1"));
+		assertEquals(1.0, meterRegistry.get("iqfit.datasource.replica.fallbacks").counter().count());
+
+		routing.checkHealth();
+		assertEquals("primary", readOnly.execute(status -> whereAmI()));
+
+		replica.down = false;
+		routing.checkHealth();
+		assertTrue(routing.isHealthy("replica-1"));
+		assertEquals("replica", readOnly.execute(status -> whereAmI()));
+	}
+
+	private String whereAmI() {
+		return jdbc.queryForObject("SELECT name FROM db_role", String.class);
+	}
+
+	private static DataSource database(String name, String role) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate setup = new JdbcTemplate(dataSource);
+		setup.execute("CREATE TABLE IF NOT EXISTS db_role (name VARCHAR(20))");
+		setup.execute("DELETE FROM db_role");
+		setup.update("INSERT INTO db_role VALUES (?)", role);
+		return dataSource;
+	}
+
+	// Replica whose connections can be switched off
+	private static final class FlakyDataSource extends DelegatingDataSource {
+		volatile boolean down;
+
+		FlakyDataSource(DataSource target) {
+			super(target);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			if (down) {
+				throw new SQLException("replica unreachable");
+			}
+			return super.getConnection();
+		}
+	}
+}
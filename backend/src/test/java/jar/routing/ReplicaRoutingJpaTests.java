@@ -0,0 +1,106 @@
+package jar.routing;
+
+import jar.BackendApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The whole stack (JpaTransactionManager, Hibernate, the servlet filters) on top of the routing
+// DataSource. The replica is a separate H2 database that does not exist at startup (IFEXISTS), so
+// the app starts on the primary alone; each test then copies the primary's schema into it, adds
+// a stats row for user 1 with 42 workouts that the primary does not have, and runs the health
+// check. The response shows where the request's read went.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing_jpa_primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"iqfit.datasource.replicas.enabled=true",
+		"iqfit.datasource.replicas.urls=" + ReplicaRoutingJpaTests.REPLICA_URL + ";IFEXISTS=TRUE",
+		"iqfit.datasource.replicas.username=sa",
+		"iqfit.datasource.replicas.password=",
+		"iqfit.datasource.replicas.connection-timeout-ms=250"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingJpaTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing_jpa_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private ReplicaDataSourceConfig replicaDataSourceConfig;
+
+	@BeforeEach
+	void startReplica() throws SQLException {
+		// Outside a transaction, so this reads the primary
+		List<String> schema = new JdbcTemplate(dataSource).queryForList("SCRIPT NODATA", String.class);
+		try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+				Statement statement = connection.createStatement()) {
+			statement.execute("DROP ALL OBJECTS");
+			for (String ddl : schema) {
+				statement.execute(ddl);
+			}
+			statement.execute("INSERT INTO user_activity_stats (user_id, workouts, study_sessions, recipes_tried, "
+					+ "archived_workouts, archived_study_sessions, archived_recipes_tried, longest_streak) "
+					+ "VALUES (1, 42, 0, 0, 0, 0, 0, 0)");
+		}
+		replicaDataSourceConfig.checkReplicas();
+	}
+
+	@Test
+	void readOnlyRequestIsServedByTheReplica() throws Exception {
+		mockMvc.perform(get("/api/users/1/stats").header("X-User-Id", "reader"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.workouts").value(42));
+	}
+
+	@Test
+	void readsAfterTheClientsOwnWriteStayOnThePrimary() throws Exception {
+		mockMvc.perform(post("/api/users/stats/rebuild").header("X-User-Id", "writer"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/1/stats").header("X-User-Id", "writer"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.workouts").value(not(42)));
+	}
+
+	@Test
+	void startupFailsWithOpenInView() {
+		SpringApplicationBuilder application = new SpringApplicationBuilder(BackendApplication.class)
+				.web(WebApplicationType.NONE);
+		Exception failure = assertThrows(Exception.class, () -> application.run(
+				"--spring.datasource.url=jdbc:h2:mem:routing_jpa_osiv;MODE=MySQL;DB_CLOSE_DELAY=-1",
+				"--spring.datasource.username=sa",
+				"--spring.datasource.password=",
+				"--spring.jpa.open-in-view=true",
+				"--iqfit.datasource.replicas.enabled=true",
+				"--iqfit.datasource.replicas.urls=" + REPLICA_URL));
+		assertTrue(NestedExceptionUtils.getMostSpecificCause(failure).getMessage().contains("open-in-view"));
+	}
+}
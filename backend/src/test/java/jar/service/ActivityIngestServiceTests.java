@@ -0,0 +1,113 @@
+package jar.service;
+
+import jar.dto.ActivityEvent;
+import jar.dto.ContentRecord;
+import jar.model.ActivityLog;
+import jar.model.Content;
+import jar.model.User;
+import jar.repository.ActivityLogRepository;
+import jar.repository.ContentRepository;
+import jar.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Write-behind flushes against mocked repositories; saveAll records each transaction's list
+class ActivityIngestServiceTests {
+
+	private final ActivityIngestService service = new ActivityIngestService();
+	private final List<List<ActivityLog>> saved = new ArrayList<>();
+	private final ActivityLogRepository activityLogRepository = mock(ActivityLogRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final RecommendationService recommendationService = mock(RecommendationService.class);
+	private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+	private final DashboardService dashboardService = mock(DashboardService.class);
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		Content content = new Content();
+		content.setId(1L);
+		content.setTitle("Squats");
+		content.setContentType("WORKOUT");
+		ContentRepository contentRepository = mock(ContentRepository.class);
+		when(contentRepository.getReferenceById(1L)).thenReturn(content);
+		ContentCatalogCache contentCatalogCache = mock(ContentCatalogCache.class);
+		when(contentCatalogCache.find(1L)).thenReturn(Optional.of(ContentRecord.from(content)));
+
+		when(userRepository.getReferenceById(anyLong())).thenReturn(new User());
+		when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+		when(activityLogRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			List<ActivityLog> logs = invocation.getArgument(0);
+			saved.add(logs);
+			return logs;
+		});
+		when(leaderboardService.recordGate()).thenReturn(new ReentrantReadWriteLock().readLock());
+
+		ReflectionTestUtils.setField(service, "activityLogRepository", activityLogRepository);
+		ReflectionTestUtils.setField(service, "userRepository", userRepository);
+		ReflectionTestUtils.setField(service, "contentRepository", contentRepository);
+		ReflectionTestUtils.setField(service, "contentCatalogCache", contentCatalogCache);
+		ReflectionTestUtils.setField(service, "userStatsService", mock(UserStatsService.class));
+		ReflectionTestUtils.setField(service, "recommendationService", recommendationService);
+		ReflectionTestUtils.setField(service, "leaderboardService", leaderboardService);
+		ReflectionTestUtils.setField(service, "dashboardService", dashboardService);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.invokeMethod(service, "init");
+	}
+
+	// The batch is committed; a failing consumer must not send it through the per-event retry
+	@Test
+	void aFailingConsumerDoesNotRewriteTheBatch() {
+		List<ActivityEvent> batch = List.of(completion(1L), completion(2L));
+		doThrow(new IllegalStateException("boom")).when(dashboardService).activityRecorded(anyList());
+
+		assertThrows(IllegalStateException.class, () -> ReflectionTestUtils.invokeMethod(service, "flushBuffered", batch));
+
+		assertEquals(1, saved.size());
+		verify(leaderboardService, times(1)).recordCompleted(anyList(), anyList());
+		verify(recommendationService, times(1)).recordCompleted(batch);
+	}
+
+	@Test
+	void aFailedBatchIsRetriedPerEventAndOnlyTheCommittedOnesAreRecorded() {
+		// User 3 was deleted after its event was queued
+		when(userRepository.findExistingIds(anyCollection()))
+				.thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+						.filter(Set.of(1L, 2L)::contains).toList());
+		List<ActivityEvent> batch = List.of(completion(1L), completion(3L), completion(2L));
+
+		ReflectionTestUtils.invokeMethod(service, "flushBuffered", batch);
+
+		assertEquals(2, saved.size());
+		List<ActivityEvent> committed = List.of(completion(1L), completion(2L));
+		verify(leaderboardService, times(1)).recordCompleted(eq(committed), anyList());
+		verify(recommendationService, times(1)).recordCompleted(committed);
+		verify(dashboardService, times(1)).activityRecorded(committed);
+	}
+
+	private static ActivityEvent completion(Long userId) {
+		return new ActivityEvent(userId, 1L, "COMPLETED", LocalDateTime.of(2026, 1, 5, 12, 0));
+	}
+}
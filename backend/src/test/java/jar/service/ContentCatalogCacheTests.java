@@ -0,0 +1,134 @@
+package jar.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jar.dto.ContentRecord;
+import jar.model.Content;
+import jar.repository.ContentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Single-item updates have to publish exactly what a full reload of the same table would
+class ContentCatalogCacheTests {
+
+	private final List<Content> table = new ArrayList<>();
+
+	@Test
+	void putReplacesAnItemAndMovesItBetweenTypes() {
+		table.add(content(1L, "Squats", "WORKOUT"));
+		table.add(content(2L, "Pancakes", "RECIPE"));
+		table.add(content(3L, "Lunges", "WORKOUT"));
+		ContentCatalogCache cache = cache();
+
+		Content edited = content(1L, "Oat squares", "RECIPE");
+		table.set(0, edited);
+		cache.put(edited);
+
+		assertSameAsReload(cache);
+		assertEquals("Oat squares", cache.find(1L).orElseThrow().title());
+		assertEquals(2, cache.version());
+	}
+
+	@Test
+	void putAddsNewItemsInIdOrder() {
+		table.add(content(1L, "Squats", "WORKOUT"));
+		table.add(content(5L, "Pancakes", "RECIPE"));
+		ContentCatalogCache cache = cache();
+
+		Content added = content(3L, "Focus blocks", "STUDY_TIP");
+		table.add(1, added);
+		cache.put(added);
+
+		assertSameAsReload(cache);
+		assertEquals(List.of(1L, 3L, 5L), cache.items().stream().map(ContentRecord::id).toList());
+	}
+
+	@Test
+	void evictDropsTheItemAndAnEmptiedType() {
+		table.add(content(1L, "Squats", "WORKOUT"));
+		table.add(content(2L, "Pancakes", "RECIPE"));
+		ContentCatalogCache cache = cache();
+
+		table.remove(1);
+		cache.evict(2L);
+		cache.evict(99L);
+
+		assertSameAsReload(cache);
+		assertTrue(cache.find(2L).isEmpty());
+		assertEquals("[]", new String(cache.byType("RECIPE").json()));
+		assertEquals(2, cache.version());
+	}
+
+	@Test
+	void changesToTheSavedEntityDoNotLeakIntoTheCache() {
+		table.add(content(1L, "Squats", "WORKOUT"));
+		ContentCatalogCache cache = cache();
+
+		Content edited = content(1L, "Front squats", "WORKOUT");
+		cache.put(edited);
+		edited.setTitle("Changed after saving");
+
+		assertEquals("Front squats", cache.find(1L).orElseThrow().title());
+	}
+
+	// The table is read once, at startup; after that only the edits are applied
+	@Test
+	void singleItemWritesDoNotReloadTheTable() {
+		table.add(content(1L, "Squats", "WORKOUT"));
+		ContentRepository repository = repository();
+		ContentCatalogCache cache = cache(repository);
+
+		cache.put(content(2L, "Pancakes", "RECIPE"));
+		cache.evict(1L);
+
+		verify(repository, times(1)).findAll(any(Sort.class));
+	}
+
+	private void assertSameAsReload(ContentCatalogCache cache) {
+		ContentCatalogCache reloaded = cache();
+		assertEquals(reloaded.items(), cache.items());
+		assertArrayEquals(reloaded.all().json(), cache.all().json());
+		assertEquals(reloaded.all().etag(), cache.all().etag());
+		for (String type : List.of("WORKOUT", "RECIPE", "STUDY_TIP")) {
+			assertArrayEquals(reloaded.byType(type).json(), cache.byType(type).json(), type);
+		}
+	}
+
+	private ContentCatalogCache cache() {
+		return cache(repository());
+	}
+
+	private ContentCatalogCache cache(ContentRepository repository) {
+		ContentCatalogCache cache = new ContentCatalogCache();
+		ReflectionTestUtils.setField(cache, "contentRepository", repository);
+		ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper().findAndRegisterModules());
+		cache.refresh();
+		return cache;
+	}
+
+	private ContentRepository repository() {
+		ContentRepository repository = mock(ContentRepository.class);
+		when(repository.findAll(any(Sort.class))).thenReturn(List.copyOf(table));
+		return repository;
+	}
+
+	private static Content content(Long id, String title, String contentType) {
+		Content content = new Content();
+		content.setId(id);
+		content.setTitle(title);
+		content.setContentType(contentType);
+		return content;
+	}
+}
@@ -0,0 +1,105 @@
+package jar.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jar.dto.ContentImportResult;
+import jar.model.Content;
+import jar.repository.ContentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The repository and transaction manager are mocks; saveAll records each chunk it is given
+class ContentImportServiceTests {
+
+	private final ContentImportService service = new ContentImportService();
+	private final List<List<Content>> chunks = new ArrayList<>();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ContentRepository repository = mock(ContentRepository.class);
+		when(repository.findByTitleIn(anyCollection())).thenReturn(List.of());
+		when(repository.saveAll(any(Iterable.class))).thenAnswer(invocation -> {
+			List<Content> chunk = new ArrayList<>();
+			((Iterable<Content>) invocation.getArgument(0)).forEach(chunk::add);
+			chunks.add(chunk);
+			return chunk;
+		});
+
+		ReflectionTestUtils.setField(service, "contentRepository", repository);
+		ReflectionTestUtils.setField(service, "contentCatalogCache", mock(ContentCatalogCache.class));
+		ReflectionTestUtils.setField(service, "contentSearchIndex", mock(ContentSearchIndex.class));
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "chunkSize", 3);
+		ReflectionTestUtils.setField(service, "maxErrors", 10);
+		ReflectionTestUtils.setField(service, "maxLineLength", 100);
+		ReflectionTestUtils.invokeMethod(service, "init");
+	}
+
+	@Test
+	void overlongLinesAreRejectedAndTheRestImported() throws IOException {
+		String ndjson = item("Squats", "WORKOUT") + "\n"
+				+ "{\"title\":\"" + "x".repeat(10_000) + "\",\"contentType\":\"WORKOUT\"}\r\n"
+				+ item("Pancakes", "RECIPE") + "\r\n"
+				+ "y".repeat(101);
+
+		ContentImportResult result = run(ndjson);
+
+		assertEquals(4, result.lines());
+		assertEquals(2, result.inserted());
+		assertEquals(2, result.failed());
+		assertEquals(List.of(2L, 4L), result.errors().stream().map(ContentImportResult.LineError::line).toList());
+		assertEquals("Line is longer than 100 characters", result.errors().get(0).error());
+	}
+
+	@Test
+	void lineOfExactlyTheMaximumIsAccepted() throws IOException {
+		String line = item("Squats", "WORKOUT");
+		line = line.substring(0, line.length() - 1) + " ".repeat(100 - line.length()) + "}";
+		assertEquals(100, line.length());
+
+		ContentImportResult result = run(line + "\r\n" + line);
+
+		assertEquals(0, result.failed());
+	}
+
+	@Test
+	void repeatedKeysKeepTheLastLineWithoutSplittingTheChunk() throws IOException {
+		String ndjson = item("Squats", "WORKOUT") + "\n"
+				+ item("Pancakes", "RECIPE") + "\n"
+				+ "{\"title\":\"Squats\",\"contentType\":\"WORKOUT\",\"sets\":4}\n"
+				+ "{\"title\":\"Squats\",\"contentType\":\"WORKOUT\",\"sets\":5}\n"
+				+ item("Focus", "STUDY_TIP") + "\n"
+				+ item("Lunges", "WORKOUT") + "\n";
+
+		ContentImportResult result = run(ndjson);
+
+		assertEquals(6, result.lines());
+		assertEquals(4, result.inserted());
+		assertEquals(2, result.updated());
+		assertEquals(List.of(3, 1), chunks.stream().map(List::size).toList());
+		assertEquals(5, chunks.get(0).get(0).getSets());
+	}
+
+	private ContentImportResult run(String ndjson) throws IOException {
+		return service.importNdjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String item(String title, String contentType) {
+		return "{\"title\":\"" + title + "\",\"contentType\":\"" + contentType + "\"}";
+	}
+}
@@ -0,0 +1,141 @@
+package jar.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jar.dto.ContentSearchResult;
+import jar.model.Content;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentSearchIndexTests {
+
+	private final ContentSearchIndex index = new ContentSearchIndex();
+	private long nextId = 1;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(index, "objectMapper", new ObjectMapper());
+	}
+
+	@Test
+	void tokenizeLowerCasesFoldsAccentsAndSplitsOnPunctuation() {
+		assertEquals(List.of("creme", "brulee", "10", "min"), ContentSearchIndex.tokenize("Crème Brûlée — 10-min!"));
+		assertEquals(List.of("hiit", "x2"), ContentSearchIndex.tokenize("  HIIT_x2  "));
+		assertEquals(List.of(), ContentSearchIndex.tokenize(null));
+		assertEquals(List.of(), ContentSearchIndex.tokenize(" \t"));
+		assertEquals(List.of(), ContentSearchIndex.tokenize("--//--"));
+	}
+
+	@Test
+	void withinOneEditAcceptsASingleEdit() {
+		assertTrue(ContentSearchIndex.withinOneEdit("squat", "squats"));  // insert
+		assertTrue(ContentSearchIndex.withinOneEdit("squats", "squat"));  // delete
+		assertTrue(ContentSearchIndex.withinOneEdit("squat", "sqaut"));   // adjacent swap
+		assertTrue(ContentSearchIndex.withinOneEdit("squat", "squad"));   // substitution at the end
+		assertTrue(ContentSearchIndex.withinOneEdit("squat", "xquat"));   // substitution at the start
+		assertTrue(ContentSearchIndex.withinOneEdit("squat", "quat"));    // delete the first character
+	}
+
+	@Test
+	void withinOneEditRejectsEverythingElse() {
+		assertFalse(ContentSearchIndex.withinOneEdit("squat", "squat"));
+		assertFalse(ContentSearchIndex.withinOneEdit("squat", "sqat!s"));
+		assertFalse(ContentSearchIndex.withinOneEdit("squat", "squatsss"));
+		assertFalse(ContentSearchIndex.withinOneEdit("squat", "qsuta"));
+		assertFalse(ContentSearchIndex.withinOneEdit("squat", "sxuay"));
+		assertFalse(ContentSearchIndex.withinOneEdit("abcd", "badc"));
+	}
+
+	@Test
+	void deletionKeysOfTermsOneEditApartOverlap() {
+		for (String typo : List.of("strenght", "strengh", "sstrength", "xtrength", "trength", "strengtx")) {
+			Set<String> shared = ContentSearchIndex.deletionKeys("strength");
+			shared.retainAll(ContentSearchIndex.deletionKeys(typo));
+			assertFalse(shared.isEmpty(), typo);
+		}
+		assertEquals(Set.of(), ContentSearchIndex.deletionKeys("ab"));
+	}
+
+	@Test
+	void titleMatchesOutrankBodyMatches() {
+		long body = add("Morning routine", "A gentle plank sequence");
+		long title = add("Plank challenge", "Hold it");
+		add("Evening stretch", "Relax before bed");
+
+		assertEquals(List.of(title, body), ids(index.search("plank", null, null, null, 10)));
+	}
+
+	@Test
+	void repeatedTermsAndShorterDocumentsScoreHigher() {
+		long once = add("Core", "core strength and balance for the upper body and legs today");
+		long twice = add("Core", "core core strength and balance for the upper body and legs");
+		long shortDoc = add("Core", "core");
+
+		List<ContentSearchResult.Hit> hits = index.search("core", null, null, null, 10).hits();
+		assertEquals(List.of(shortDoc, twice, once), hits.stream().map(ContentSearchResult.Hit::id).toList());
+		assertTrue(hits.get(0).score() > hits.get(1).score());
+		assertTrue(hits.get(1).score() > hits.get(2).score());
+	}
+
+	@Test
+	void rarerTermsWeighMoreThanCommonOnes() {
+		// Both match both words with the same lengths; "nidra" is in 2 of 4 documents, "yoga" in all
+		long yogaTitle = add("Yoga", "nidra");
+		long nidraTitle = add("Nidra", "yoga");
+		add("Yoga basics", "yoga");
+		add("Yoga stretch", "yoga");
+
+		assertEquals(List.of(nidraTitle, yogaTitle), ids(index.search("yoga nidra", null, null, null, 10)));
+		assertEquals(4, index.search("yoga", null, null, null, 10).total());
+	}
+
+	@Test
+	void prefixExpansionKeepsTheMostFrequentTerms() {
+		// 40 rare terms that sort before "strength"; of the 32 prefix expansions kept, "strength"
+		// (in two documents) is one, so its documents and 31 of the rare ones match
+		for (int i = 0; i < 40; i++) {
+			add("st" + (char) ('a' + i / 26) + (char) ('a' + i % 26) + "x", "filler");
+		}
+		long first = add("Strength basics", "strength");
+		long second = add("Strength plan", "strength");
+
+		List<Long> hits = ids(index.search("st", null, null, null, 50));
+		assertTrue(hits.contains(first));
+		assertTrue(hits.contains(second));
+		assertEquals(33, hits.size());
+	}
+
+	@Test
+	void typosMatchIncludingTheFirstCharacter() {
+		long strength = add("Strength circuit", "Full body");
+		add("Cardio", "Run");
+
+		assertEquals(List.of(strength), ids(index.search("strenght", null, null, null, 10)));
+		assertEquals(List.of(strength), ids(index.search("xtrength", null, null, null, 10)));
+		assertEquals(List.of(), ids(index.search("xtrenght", null, null, null, 10)));
+
+		index.remove(strength);
+		assertEquals(List.of(), ids(index.search("strenght", null, null, null, 10)));
+	}
+
+	private long add(String title, String description) {
+		Content content = new Content();
+		content.setId(nextId++);
+		content.setTitle(title);
+		content.setDescription(description);
+		content.setContentType("WORKOUT");
+		index.index(content);
+		return content.getId();
+	}
+
+	private static List<Long> ids(ContentSearchResult result) {
+		return result.hits().stream().map(ContentSearchResult.Hit::id).toList();
+	}
+}
@@ -0,0 +1,235 @@
+package jar.service;
+
+import jar.dto.ActivityEvent;
+import jar.dto.ActivityHistoryItem;
+import jar.dto.LeaderboardEntry;
+import jar.dto.UserStreak;
+import jar.dto.WeeklyLeaderboard;
+import jar.repository.ActivityLogRepository;
+import jar.repository.UserActivityStatsRepository;
+import jar.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The board is fed through recordCompleted (as ActivityIngestService does after a commit) or a
+// rebuild over mocked repositories; nothing here touches a database.
+class LeaderboardServiceTests {
+
+	private final ActivityLogRepository activityLogRepository = mock(ActivityLogRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final UserActivityStatsRepository statsRepository = mock(UserActivityStatsRepository.class);
+	private final LeaderboardService service = new LeaderboardService();
+	private long nextLogId = 1;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "activityLogRepository", activityLogRepository);
+		ReflectionTestUtils.setField(service, "userRepository", userRepository);
+		ReflectionTestUtils.setField(service, "statsRepository", statsRepository);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "retainedWeeks", 8);
+		ReflectionTestUtils.setField(service, "rebuildChunkSize", 1000);
+		ReflectionTestUtils.invokeMethod(service, "init");
+	}
+
+	@Test
+	void rankKeyOrdersHigherScoresFirstThenLowerUserIds() {
+		ConcurrentSkipListSet<Long> ranking = new ConcurrentSkipListSet<>(List.of(
+				LeaderboardService.rankKey(1, 1),
+				LeaderboardService.rankKey(5, 9),
+				LeaderboardService.rankKey(5, 2),
+				LeaderboardService.rankKey(0, 3),
+				LeaderboardService.rankKey(Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1)));
+		List<Long> expected = List.of(
+				LeaderboardService.rankKey(Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1),
+				LeaderboardService.rankKey(5, 2),
+				LeaderboardService.rankKey(5, 9),
+				LeaderboardService.rankKey(1, 1),
+				LeaderboardService.rankKey(0, 3));
+		assertEquals(expected, new ArrayList<>(ranking));
+	}
+
+	@Test
+	void usersWithTheSameScoreShareARank() {
+		LocalDate monday = LocalDate.now().with(DayOfWeek.MONDAY);
+		complete(4, monday, 1);
+		complete(3, monday, 2);
+		complete(1, monday, 2);
+		complete(2, monday, 3);
+		complete(5, monday, 1);
+
+		List<LeaderboardEntry> entries = service.leaderboard(monday, 10).entries();
+		assertEquals(List.of(
+				new LeaderboardEntry(1, 2L, 3),
+				new LeaderboardEntry(2, 1L, 2),
+				new LeaderboardEntry(2, 3L, 2),
+				new LeaderboardEntry(4, 4L, 1),
+				new LeaderboardEntry(4, 5L, 1)), entries);
+
+		assertEquals(3, service.leaderboard(monday, 3).entries().size());
+	}
+
+	@Test
+	void aGrowingScoreMovesTheUserWithoutDuplicates() {
+		LocalDate monday = LocalDate.now().with(DayOfWeek.MONDAY);
+		complete(1, monday, 2);
+		complete(2, monday, 1);
+		complete(2, monday, 2);
+
+		assertEquals(List.of(new LeaderboardEntry(1, 2L, 3), new LeaderboardEntry(2, 1L, 2)),
+				service.leaderboard(monday.plusDays(3), 10).entries());
+	}
+
+	@Test
+	void leaderboardIsLabelledWithTheIsoWeek() {
+		WeeklyLeaderboard board = service.leaderboard(LocalDate.of(2025, 2, 12), 10);
+		assertEquals("2025-W07", board.week());
+		assertEquals(LocalDate.of(2025, 2, 10), board.weekStart());
+		assertEquals(List.of(), board.entries());
+
+		assertEquals("2026-W01", service.leaderboard(LocalDate.of(2025, 12, 31), 10).week());
+	}
+
+	@Test
+	void parseWeekAcceptsIsoWeeksAndDates() {
+		assertEquals(LocalDate.of(2025, 2, 10), LeaderboardService.parseWeek("2025-W07"));
+		assertEquals(LocalDate.of(2024, 12, 30), LeaderboardService.parseWeek("2025-W01"));
+		assertEquals(LocalDate.of(2025, 2, 12), LeaderboardService.parseWeek("2025-02-12"));
+		assertEquals(LocalDate.now(), LeaderboardService.parseWeek(null));
+		assertEquals(LocalDate.now(), LeaderboardService.parseWeek("  "));
+	}
+
+	@Test
+	void parseWeekRejectsAnythingElse() {
+		assertThrows(IllegalArgumentException.class, () -> LeaderboardService.parseWeek("2025-W99"));
+		assertThrows(IllegalArgumentException.class, () -> LeaderboardService.parseWeek("2025-02-30"));
+		assertThrows(IllegalArgumentException.class, () -> LeaderboardService.parseWeek("last week"));
+	}
+
+	@Test
+	void streakCountsConsecutiveDays() {
+		LocalDate today = LocalDate.now();
+		complete(7, today.minusDays(10), 1);
+		complete(7, today.minusDays(9), 1);
+		complete(7, today.minusDays(8), 1);
+		complete(7, today.minusDays(1), 1);
+		complete(7, today, 2);
+
+		UserStreak streak = service.streak(7L);
+		assertEquals(2, streak.currentStreak());
+		assertEquals(3, streak.longestStreak());
+		assertEquals(today, streak.lastActiveDate());
+
+		assertEquals(new UserStreak(8L, 0, 0, null), service.streak(8L));
+	}
+
+	@Test
+	void rebuildStartsFromTheStoredLongestStreak() {
+		LocalDate today = LocalDate.now();
+		when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(7L, 8L));
+		when(userRepository.findIdsAfter(eq(8L), any(Pageable.class))).thenReturn(List.of());
+		// User 7 had a 30 day run in rows since archived, user 8 has nothing left in activity_logs
+		when(statsRepository.findLongestStreaks(anyList()))
+				.thenReturn(List.of(new Object[] {7L, 30}, new Object[] {8L, 12}));
+		when(activityLogRepository.countCompletedPerDay(anyList())).thenReturn(List.of(
+				new Object[] {7L, today.minusDays(1), 1L},
+				new Object[] {7L, today, 1L}));
+
+		service.rebuild();
+
+		assertEquals(new UserStreak(7L, 2, 30, today), service.streak(7L));
+		assertEquals(12, service.streak(8L).longestStreak());
+		assertNull(service.streak(8L).lastActiveDate());
+
+		// Already stored: nothing to write
+		assertEquals(0, service.persistLongestStreaks());
+		verify(statsRepository, never()).raiseLongestStreak(anyLong(), anyInt());
+	}
+
+	// Log ids are not in commit order, so the rebuild tells what its chunk query saw by user instead
+	@Test
+	void rebuildReplaysCompletionsRecordedAfterTheirUserWasRead() {
+		LocalDate today = LocalDate.now();
+		when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(7L));
+		when(userRepository.findIdsAfter(eq(7L), any(Pageable.class))).thenAnswer(invocation -> {
+			// Committed meanwhile: one for a user already read, one for a user not reached yet
+			complete(7, today, 1);
+			complete(8, today, 1);
+			return List.of(8L);
+		});
+		when(userRepository.findIdsAfter(eq(8L), any(Pageable.class))).thenAnswer(invocation -> {
+			// A user created after the last chunk was listed
+			complete(9, today, 1);
+			return List.of();
+		});
+		when(activityLogRepository.countCompletedPerDay(List.of(7L)))
+				.thenReturn(List.<Object[]>of(new Object[] {7L, today, 1L}));
+		when(activityLogRepository.countCompletedPerDay(List.of(8L)))
+				.thenReturn(List.<Object[]>of(new Object[] {8L, today, 1L}));
+
+		service.rebuild();
+
+		assertEquals(2, completedThisWeek(7L));
+		assertEquals(1, completedThisWeek(8L));
+		assertEquals(1, completedThisWeek(9L));
+	}
+
+	@Test
+	void persistLongestStreaksWritesOnlyWhatGrew() {
+		LocalDate today = LocalDate.now();
+		when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of());
+		service.rebuild();
+
+		complete(3, today.minusDays(2), 1);
+		complete(3, today.minusDays(1), 1);
+		complete(4, today, 1);
+
+		assertEquals(2, service.persistLongestStreaks());
+		verify(statsRepository).raiseLongestStreak(3L, 2);
+		verify(statsRepository).raiseLongestStreak(4L, 1);
+
+		complete(4, today, 1);
+		assertEquals(0, service.persistLongestStreaks());
+	}
+
+	private int completedThisWeek(long userId) {
+		return service.leaderboard(LocalDate.now(), 10).entries().stream()
+				.filter(entry -> entry.userId() == userId)
+				.mapToInt(LeaderboardEntry::score)
+				.findFirst().orElse(0);
+	}
+
+	// What ActivityIngestService hands over after committing one COMPLETED row per completion
+	private void complete(long userId, LocalDate day, int times) {
+		List<ActivityEvent> events = new ArrayList<>();
+		List<ActivityHistoryItem> saved = new ArrayList<>();
+		for (int i = 0; i < times; i++) {
+			events.add(new ActivityEvent(userId, 1L, "COMPLETED", day.atTime(12, 0)));
+			saved.add(new ActivityHistoryItem(nextLogId++, "COMPLETED", day.atTime(12, 0), 1L, "Title",
+					"WORKOUT", "Strength", 30));
+		}
+		service.recordCompleted(events, saved);
+	}
+}
@@ -0,0 +1,106 @@
+package jar.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongFloatHashMapTests {
+
+	@Test
+	void zeroKeyIsStoredBesideTheTable() {
+		LongFloatHashMap map = new LongFloatHashMap();
+		assertFalse(map.containsKey(0L));
+		assertEquals(-1f, map.get(0L, -1f));
+
+		assertEquals(1.5f, map.addTo(0L, 1.5f));
+		assertEquals(2.5f, map.addTo(0L, 1f));
+		map.put(7L, 3f);
+		assertTrue(map.containsKey(0L));
+		assertEquals(2.5f, map.get(0L, -1f));
+		assertEquals(2, map.size());
+
+		Map<Long, Float> seen = new HashMap<>();
+		map.forEach(seen::put);
+		assertEquals(Map.of(0L, 2.5f, 7L, 3f), seen);
+
+		map.put(0L, 9f);
+		assertEquals(9f, map.get(0L, -1f));
+
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertFalse(map.containsKey(0L));
+		assertFalse(map.containsKey(7L));
+	}
+
+	@Test
+	void growsPastItsExpectedSizeWithoutLosingEntries() {
+		LongFloatHashMap map = new LongFloatHashMap(4);
+		for (long key = 1; key <= 10_000; key++) {
+			map.put(key, key);
+		}
+		for (long key = 1; key <= 10_000; key++) {
+			map.addTo(key, 0.5f);
+		}
+		assertEquals(10_000, map.size());
+		for (long key = 1; key <= 10_000; key++) {
+			assertEquals(key + 0.5f, map.get(key, -1f));
+		}
+		assertFalse(map.containsKey(10_001L));
+		assertFalse(map.containsKey(-1L));
+
+		float[] sum = new float[1];
+		int[] visited = new int[1];
+		map.forEach((key, value) -> {
+			visited[0]++;
+			sum[0] += value - key;
+		});
+		assertEquals(10_000, visited[0]);
+		assertEquals(5_000f, sum[0]);
+	}
+
+	@Test
+	void collidingKeysProbeToTheNextFreeSlotAndWrapAround() {
+		// new LongFloatHashMap(8) has 16 slots and grows at 12 entries; take keys whose home slot
+		// is the last one, so probing has to wrap to the start of the table
+		List<Long> colliding = keysWithHomeSlot(15, 16, 4);
+		LongFloatHashMap map = new LongFloatHashMap(8);
+		for (int i = 0; i < 3; i++) {
+			map.put(colliding.get(i), i + 1);
+		}
+		assertEquals(1f, map.get(colliding.get(0), -1f));
+		assertEquals(2f, map.get(colliding.get(1), -1f));
+		assertEquals(3f, map.get(colliding.get(2), -1f));
+		assertFalse(map.containsKey(colliding.get(3)));
+
+		map.addTo(colliding.get(1), 10f);
+		assertEquals(12f, map.get(colliding.get(1), -1f));
+		assertEquals(3, map.size());
+
+		// Keys that land on the slots the probes wrapped into
+		for (long key : keysWithHomeSlot(0, 16, 2)) {
+			map.put(key, 100f);
+			assertEquals(100f, map.get(key, -1f));
+		}
+		assertEquals(5, map.size());
+		assertEquals(3f, map.get(colliding.get(2), -1f));
+	}
+
+	private static List<Long> keysWithHomeSlot(int slot, int capacity, int count) {
+		List<Long> keys = new ArrayList<>();
+		for (long key = 1; keys.size() < count; key++) {
+			int mixed = ReflectionTestUtils.invokeMethod(LongFloatHashMap.class, "mix", key);
+			if ((mixed & (capacity - 1)) == slot) {
+				keys.add(key);
+			}
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,131 @@
+package jar.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jar.dto.PurgeJobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+// Runs the jobs against an H2 schema with the same foreign keys as the real tables. The
+// JdbcTemplate plays a concurrent writer: just before the users delete runs, it logs more
+// activity for the user being deleted.
+class PurgeJobServiceTests {
+
+	private final RacingJdbcTemplate jdbc = new RacingJdbcTemplate();
+	private final PurgeJobService service = new PurgeJobService();
+
+	@BeforeEach
+	void setUp() {
+		jdbc.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+		jdbc.execute("CREATE TABLE subscriptions (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL REFERENCES users(id))");
+		jdbc.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL REFERENCES users(id), "
+				+ "subscription_id BIGINT NOT NULL REFERENCES subscriptions(id))");
+		jdbc.execute("CREATE TABLE activity_logs (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL REFERENCES users(id))");
+		jdbc.execute("CREATE TABLE user_activity_stats (user_id BIGINT PRIMARY KEY REFERENCES users(id))");
+		for (long user = 1; user <= 3; user++) {
+			jdbc.update("INSERT INTO users VALUES (?)", user);
+			jdbc.update("INSERT INTO subscriptions VALUES (?, ?)", user, user);
+			jdbc.update("INSERT INTO payments VALUES (?, ?, ?)", user, user, user);
+			jdbc.update("INSERT INTO user_activity_stats VALUES (?)", user);
+			for (int i = 0; i < 5; i++) {
+				jdbc.update("INSERT INTO activity_logs VALUES (?, ?)", jdbc.nextLogId.incrementAndGet(), user);
+			}
+		}
+
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbc);
+		ReflectionTestUtils.setField(service, "entityManagerFactory", mock(EntityManagerFactory.class, RETURNS_DEEP_STUBS));
+		ReflectionTestUtils.setField(service, "recommendationService", mock(RecommendationService.class));
+		ReflectionTestUtils.setField(service, "leaderboardService", mock(LeaderboardService.class));
+		ReflectionTestUtils.setField(service, "dashboardService", mock(DashboardService.class));
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "chunkSize", 2);
+		ReflectionTestUtils.setField(service, "pauseMs", 0L);
+		ReflectionTestUtils.setField(service, "keepFinished", 50);
+		ReflectionTestUtils.invokeMethod(service, "init");
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReflectionTestUtils.invokeMethod(service, "shutdown");
+		jdbc.execute("DROP ALL OBJECTS");
+	}
+
+	@Test
+	void deleteUserSweepsRowsAddedWhileItRan() throws Exception {
+		jdbc.racingUser = 2L;
+		PurgeJobStatus job = await(service.deleteUser(2L));
+
+		assertEquals("COMPLETED", job.status());
+		assertEquals(1L, job.deleted().get("users"));
+		assertEquals(6L, job.deleted().get("activity_logs"));
+		assertEquals(0, count("SELECT COUNT(*) FROM activity_logs WHERE user_id = 2"));
+		assertEquals(0, count("SELECT COUNT(*) FROM users WHERE id = 2"));
+		assertEquals(10, count("SELECT COUNT(*) FROM activity_logs"));
+		assertEquals(2, count("SELECT COUNT(*) FROM users"));
+	}
+
+	@Test
+	void purgeAllSweepsRowsAddedWhileItRan() throws Exception {
+		jdbc.racingUser = 3L;
+		PurgeJobStatus job = await(service.purgeAll());
+
+		assertEquals("COMPLETED", job.status());
+		assertEquals(3L, job.deleted().get("users"));
+		assertEquals(16L, job.deleted().get("activity_logs"));
+		assertEquals(0, count("SELECT COUNT(*) FROM users"));
+	}
+
+	@Test
+	void deleteUserGivesUpWhenRowsKeepArriving() throws Exception {
+		jdbc.racingUser = 2L;
+		jdbc.races = Integer.MAX_VALUE;
+		PurgeJobStatus job = await(service.deleteUser(2L));
+
+		assertEquals("FAILED", job.status());
+		assertEquals(1, count("SELECT COUNT(*) FROM users WHERE id = 2"));
+	}
+
+	private PurgeJobStatus await(PurgeJobStatus queued) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		PurgeJobStatus status = queued;
+		while (("QUEUED".equals(status.status()) || "RUNNING".equals(status.status())) && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+			status = service.status(queued.id()).orElseThrow();
+		}
+		return status;
+	}
+
+	private int count(String sql) {
+		return jdbc.queryForObject(sql, Integer.class);
+	}
+
+	private static final class RacingJdbcTemplate extends JdbcTemplate {
+		final AtomicInteger nextLogId = new AtomicInteger();
+		volatile Long racingUser;
+		volatile int races = 1;
+
+		RacingJdbcTemplate() {
+			super(new DriverManagerDataSource("jdbc:h2:mem:purge_jobs;DB_CLOSE_DELAY=-1", "sa", ""));
+		}
+
+		@Override
+		public int update(String sql, Object... args) {
+			if (racingUser != null && races > 0 && sql.startsWith("DELETE FROM users")) {
+				races--;
+				super.update("INSERT INTO activity_logs VALUES (?, ?)", nextLogId.incrementAndGet(), racingUser);
+			}
+			return super.update(sql, args);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package jar.service;
+
+import jar.dto.ActivityEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class RecommendationServiceTests {
+
+	private final RecommendationService service = new RecommendationService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "contentCatalogCache", mock(ContentCatalogCache.class));
+		ReflectionTestUtils.setField(service, "neighbourCount", 20);
+		ReflectionTestUtils.setField(service, "maxHistory", 1);
+		ReflectionTestUtils.setField(service, "seedItems", 10);
+	}
+
+	@Test
+	void topKKeepsTheHighestScoresBestFirst() {
+		RecommendationService.TopK top = new RecommendationService.TopK(3);
+		assertTrue(top.offer(1, 0.2f));
+		assertTrue(top.offer(2, 0.9f));
+		assertTrue(top.offer(3, 0.5f));
+		assertTrue(top.offer(4, 0.7f));
+		assertFalse(top.offer(5, 0.1f));
+		assertFalse(top.offer(6, 0.5f));
+
+		RecommendationService.Ranked ranked = top.toRanked();
+		assertArrayEquals(new long[] {2, 4, 3}, ranked.ids());
+		assertArrayEquals(new float[] {0.9f, 0.7f, 0.5f}, ranked.scores());
+	}
+
+	@Test
+	void topKKeepsTheFirstOfEqualScoresAhead() {
+		RecommendationService.TopK top = new RecommendationService.TopK(5);
+		top.offer(10, 1f);
+		top.offer(11, 2f);
+		top.offer(12, 1f);
+		top.offer(13, 2f);
+		assertArrayEquals(new long[] {11, 13, 10, 12}, top.toRanked().ids());
+	}
+
+	@Test
+	void topKOfZeroTakesNothing() {
+		RecommendationService.TopK top = new RecommendationService.TopK(0);
+		assertFalse(top.offer(1, 1f));
+		assertEquals(0, top.toRanked().ids().length);
+	}
+
+	// With max-history 1 every repeat falls outside the seed window; counting it again used to push
+	// co(A, B) past n(A) and n(B), giving a cosine above 1
+	@Test
+	void repeatedCompletionsOutsideTheHistoryAreCountedOnce() {
+		service.recordCompleted(completions(1L, 100L, 200L, 100L, 200L, 100L));
+		service.recordCompleted(completions(2L, 100L, 200L, 300L));
+		service.refreshNeighbours();
+
+		RecommendationService.Ranked related = neighbours().get(100L);
+		assertArrayEquals(new long[] {200L}, related.ids());
+		assertEquals(1f, related.scores()[0], 1e-6f);
+
+		// 300 was only paired with 200 (the window), once
+		RecommendationService.Ranked of300 = neighbours().get(300L);
+		assertArrayEquals(new long[] {200L}, of300.ids());
+		assertEquals((float) (1 / Math.sqrt(2)), of300.scores()[0], 1e-6f);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<Long, RecommendationService.Ranked> neighbours() {
+		return (Map<Long, RecommendationService.Ranked>) ReflectionTestUtils.getField(service, "neighbours");
+	}
+
+	private static List<ActivityEvent> completions(long userId, long... contentIds) {
+		List<ActivityEvent> events = new ArrayList<>();
+		for (long contentId : contentIds) {
+			events.add(new ActivityEvent(userId, contentId, "COMPLETED", LocalDateTime.now()));
+		}
+		return events;
+	}
+}
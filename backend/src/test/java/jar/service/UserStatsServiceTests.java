@@ -0,0 +1,99 @@
+package jar.service;
+
+import jar.dto.ActivityEvent;
+import jar.model.Content;
+import jar.model.User;
+import jar.repository.ContentRepository;
+import jar.repository.UserActivityStatsRepository;
+import jar.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// First completions of a user without a stats row (created before the table existed), through
+// the real ingest transaction, on a private H2 database in MySQL mode (which takes the
+// ON DUPLICATE KEY UPDATE upsert as MySQL does)
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:user_stats_tests;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class UserStatsServiceTests {
+
+	@Autowired
+	private ActivityIngestService activityIngestService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ContentRepository contentRepository;
+
+	@Autowired
+	private UserActivityStatsRepository statsRepository;
+
+	private Long userId;
+	private Long workoutId;
+
+	@BeforeEach
+	void setUp() {
+		User user = new User();
+		user.setFullName("Legacy User");
+		user.setEmail("legacy-" + UUID.randomUUID() + "@example.com");
+		userId = userRepository.save(user).getId();
+		workoutId = contentRepository.findAll().stream()
+				.filter(content -> "WORKOUT".equals(content.getContentType()))
+				.map(Content::getId)
+				.findFirst().orElseThrow();
+	}
+
+	@Test
+	void concurrentFirstCompletionsAreAllCounted() throws Exception {
+		int threads = 8;
+		CyclicBarrier start = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return activityIngestService.persist(List.of(completion()));
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get(); // Rethrows a failed insert
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(threads, statsRepository.findById(userId).orElseThrow().getWorkouts());
+	}
+
+	@Test
+	void missingRowIsSeededFromCommittedLogsPlusTheNewCompletion() {
+		activityIngestService.persist(List.of(completion(), completion()));
+		statsRepository.deleteById(userId);
+
+		activityIngestService.persist(List.of(completion()));
+
+		assertEquals(3, statsRepository.findById(userId).orElseThrow().getWorkouts());
+	}
+
+	private ActivityEvent completion() {
+		return new ActivityEvent(userId, workoutId, "COMPLETED", LocalDateTime.now());
+	}
+}
@@ -7,6 +7,17 @@ import {
 import { useNavigate } from '../hooks/useNavigate';
 
 const API_URL = 'http://localhost:8080/api';
+const PAGE_SIZE = 20;
+
+// Builds a query string from the set (non-empty) parameters
+const query = (params) => new URLSearchParams(
+    Object.entries(params).filter(([, v]) => v !== undefined && v !== null && v !== '')
+).toString();
+
+const isAdmin = () => {
+    const user = JSON.parse(localStorage.getItem('iqfit_user'));
+    return user && (user.role === 'ADMIN' || user.role === 'SUPER_ADMIN');
+};
 
 // --- TOAST NOTIFICATION COMPONENT ---
 const ToastNotification = ({ message, type, onClose }) => {
@@ -55,10 +66,15 @@ export function AdminDashboard() {
     const navigate = useNavigate();
 
     // --- MAIN STATE ---
-    const [users, setUsers] = useState([]);
+    // Users and messages are fetched a page at a time; payments only as the latest few
+    const [users, setUsers] = useState({ content: [], page: { number: 0, totalPages: 0, totalElements: 0 } });
     const [payments, setPayments] = useState([]);
     const [content, setContent] = useState([]);
-    const [messages, setMessages] = useState([]);
+    const [messages, setMessages] = useState({ content: [], page: { number: 0, totalPages: 0, totalElements: 0 } });
+    const [userPage, setUserPage] = useState(0);
+    const [messagePage, setMessagePage] = useState(0);
+    // Live totals from /api/dashboard/stream
+    const [stats, setStats] = useState({ totalUsers: 0, totalRevenue: 0, inboxMessages: 0 });
     
     // UI State
     const [activeTab, setActiveTab] = useState('overview');
@@ -93,21 +109,85 @@ export function AdminDashboard() {
         setTimeout(() => setToast({ message: '', type: 'info' }), 4000); // Auto hide
     }, []);
 
-    const fetchData = useCallback(() => {
-        fetch(`${API_URL}/users`).then(res => res.json()).then(setUsers).catch(console.error);
-        fetch(`${API_URL}/payments`).then(res => res.json()).then(setPayments).catch(console.error);
+    // Search and plan filter run on the server (name/email prefix, premium flag)
+    const fetchUsers = useCallback(() => {
+        const params = query({
+            q: searchTerm.trim(),
+            premium: userFilter === 'ALL' ? '' : userFilter === 'PREMIUM',
+            page: userPage, size: PAGE_SIZE, sort: 'id,desc'
+        });
+        fetch(`${API_URL}/users/page?${params}`).then(res => res.json()).then(setUsers).catch(console.error);
+    }, [searchTerm, userFilter, userPage]);
+
+    const fetchMessages = useCallback(() => {
+        fetch(`${API_URL}/messages/page?${query({ page: messagePage, size: PAGE_SIZE })}`)
+            .then(res => res.json()).then(setMessages).catch(console.error);
+    }, [messagePage]);
+
+    // Latest payments for the activity feed (newest first by default)
+    const fetchPayments = useCallback(() => {
+        fetch(`${API_URL}/payments/page?${query({ size: 5 })}`).then(res => res.json()).then(p => setPayments(p.content)).catch(console.error);
+    }, []);
+
+    const fetchContent = useCallback(() => {
         fetch(`${API_URL}/content`).then(res => res.json()).then(setContent).catch(console.error);
-        fetch(`${API_URL}/messages`).then(res => res.json()).then(setMessages).catch(console.error);
     }, []);
 
+    const fetchData = useCallback(() => {
+        fetchUsers();
+        fetchMessages();
+        fetchPayments();
+        fetchContent();
+    }, [fetchUsers, fetchMessages, fetchPayments, fetchContent]);
+
     useEffect(() => {
-        const user = JSON.parse(localStorage.getItem('iqfit_user'));
-        if (!user || (user.role !== 'ADMIN' && user.role !== 'SUPER_ADMIN')) {
+        if (!isAdmin()) {
             navigate('/dashboard');
             return;
         }
-        fetchData();
-    }, [navigate, fetchData]);
+        fetchPayments();
+        fetchContent();
+    }, [navigate, fetchPayments, fetchContent]);
+
+    // Typing in the search box waits for a pause before asking the server
+    useEffect(() => {
+        if (!isAdmin()) return;
+        const timer = setTimeout(fetchUsers, 300);
+        return () => clearTimeout(timer);
+    }, [fetchUsers]);
+
+    useEffect(() => {
+        if (isAdmin()) fetchMessages();
+    }, [fetchMessages]);
+
+    // A new search or filter starts again from the first page
+    useEffect(() => setUserPage(0), [searchTerm, userFilter]);
+
+    // Deleting the last row of the last page steps back a page
+    useEffect(() => {
+        const { number, totalPages } = users.page;
+        if (totalPages > 0 && number >= totalPages) setUserPage(totalPages - 1);
+    }, [users]);
+    useEffect(() => {
+        const { number, totalPages } = messages.page;
+        if (totalPages > 0 && number >= totalPages) setMessagePage(totalPages - 1);
+    }, [messages]);
+
+    // Counters: one snapshot, then deltas (new* and revenue are increments, inboxMessages is current)
+    useEffect(() => {
+        if (!isAdmin()) return;
+        const source = new EventSource(`${API_URL}/dashboard/stream`);
+        source.addEventListener('snapshot', e => setStats(JSON.parse(e.data)));
+        source.addEventListener('delta', e => {
+            const d = JSON.parse(e.data);
+            setStats(prev => ({
+                totalUsers: prev.totalUsers + d.newUsers,
+                totalRevenue: prev.totalRevenue + d.revenue,
+                inboxMessages: d.inboxMessages
+            }));
+        });
+        return () => source.close();
+    }, []);
 
     const resetForm = () => {
         setNewItem({ 
@@ -175,6 +255,20 @@ export function AdminDashboard() {
         window.scrollTo({ top: 0, behavior: 'smooth' });
     };
 
+    // Deleting a user answers 202 with a background job; poll it until it has finished
+    const waitForJob = async (job) => {
+        let current = job;
+        while (current.status === 'QUEUED' || current.status === 'RUNNING') {
+            await new Promise(resolve => setTimeout(resolve, 1000));
+            const res = await fetch(`${API_URL}/users/jobs/${current.id}`);
+            if (!res.ok) throw new Error(`Job ${current.id} not found`);
+            current = await res.json();
+        }
+        if (current.status !== 'COMPLETED') {
+            throw new Error(current.error || `Job ${current.status.toLowerCase()}`);
+        }
+    };
+
     const confirmAndDelete = (id, endpoint, successMsg) => {
         setConfirmModal({
             isOpen: true,
@@ -183,12 +277,17 @@ export function AdminDashboard() {
             type: 'danger',
             onConfirm: async () => {
                 try {
-                    await fetch(`${API_URL}/${endpoint}/${id}`, { method: 'DELETE' });
+                    const res = await fetch(`${API_URL}/${endpoint}/${id}`, { method: 'DELETE' });
+                    if (!res.ok) throw new Error(`Delete failed (${res.status})`);
+                    if (res.status === 202) {
+                        showToast('Deletion in progress...', 'info');
+                        await waitForJob(await res.json());
+                    }
                     fetchData();
                     if (editingId === id) resetForm();
                     showToast(successMsg, 'success');
                 } catch (e) {
-                    showToast("Deletion failed.", 'error');
+                    showToast(e.message || "Deletion failed.", 'error');
                 }
             }
         });
@@ -283,13 +382,6 @@ export function AdminDashboard() {
         }
         return filtered;
     };
-    
-    const filteredUsers = users.filter(u => {
-        const matchesSearch = u.fullName?.toLowerCase().includes(searchTerm.toLowerCase()) || 
-                              u.email?.toLowerCase().includes(searchTerm.toLowerCase());
-        const matchesFilter = userFilter === 'ALL' ? true : userFilter === 'PREMIUM' ? u.isPremium : !u.isPremium;
-        return matchesSearch && matchesFilter;
-    });
 
     const WORKOUT_CATEGORIES = ['FULL BODY', 'PUSH', 'PULL', 'LEGS', 'CHEST', 'ARMS', 'CORE', 'CARDIO'];
     const STUDY_CATEGORIES = ['Time Management', 'Memory', 'Focus', 'Learning Strategy', 'Understanding', 'Organization', 'Productivity', 'Reading', 'Wellness'];
@@ -342,7 +434,7 @@ export function AdminDashboard() {
                         <nav className="space-y-1">
                             <NavBtn id="overview" icon={LayoutGrid} label="Dashboard" active={activeTab} set={setActiveTab} />
                             <NavBtn id="users" icon={Users} label="Users" active={activeTab} set={setActiveTab} />
-                            <NavBtn id="messages" icon={MessageSquare} label="Messages" active={activeTab} set={setActiveTab} badge={messages.length} />
+                            <NavBtn id="messages" icon={MessageSquare} label="Messages" active={activeTab} set={setActiveTab} badge={stats.inboxMessages} />
                         </nav>
                     </div>
                     
@@ -382,10 +474,10 @@ export function AdminDashboard() {
                 {activeTab === 'overview' && (
                     <div className="animate-in fade-in slide-in-from-bottom-4 duration-500">
                         <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-4 gap-6 mb-8">
-                            <StatCard title="Total Users" value={users.length} icon={Users} color="bg-blue-500" trend="+12%" />
+                            <StatCard title="Total Users" value={stats.totalUsers} icon={Users} color="bg-blue-500" trend="+12%" />
                             <StatCard title="Workouts" value={getFilteredContent('WORKOUT').length} icon={Dumbbell} color="bg-purple-500" trend="+5" />
-                            <StatCard title="Messages" value={messages.length} icon={MessageSquare} color="bg-orange-500" trend="New" />
-                            <StatCard title="Revenue" value={`$${payments.reduce((s, p) => s + p.amount, 0).toFixed(2)}`} icon={DollarSign} color="bg-emerald-500" trend="+8.5%" />
+                            <StatCard title="Messages" value={stats.inboxMessages} icon={MessageSquare} color="bg-orange-500" trend="New" />
+                            <StatCard title="Revenue" value={`$${stats.totalRevenue.toFixed(2)}`} icon={DollarSign} color="bg-emerald-500" trend="+8.5%" />
                         </div>
                         
                         <div className="grid lg:grid-cols-3 gap-8">
@@ -398,7 +490,7 @@ export function AdminDashboard() {
                                     {payments.length === 0 ? (
                                         <p className="text-slate-400 text-sm italic">No recent transactions.</p>
                                     ) : (
-                                        payments.slice(0, 5).map(payment => (
+                                        payments.map(payment => (
                                             <div key={payment.id} className="flex items-center justify-between p-4 hover:bg-slate-50 rounded-2xl transition-colors border border-slate-100">
                                                 <div className="flex items-center gap-4">
                                                     <div className="w-12 h-12 rounded-full bg-emerald-100 flex items-center justify-center text-emerald-600 font-bold text-lg shadow-sm">$</div>
@@ -456,7 +548,7 @@ export function AdminDashboard() {
                     <div className="bg-white rounded-3xl shadow-sm border border-slate-200 overflow-hidden animate-in fade-in slide-in-from-bottom-4 duration-500">
                         <div className="p-6 border-b border-slate-100 flex flex-col lg:flex-row justify-between items-center gap-4 bg-white">
                             <div className="flex items-center gap-3">
-                                <span className="bg-blue-50 text-blue-700 px-3 py-1 rounded-lg text-xs font-bold uppercase tracking-wide">{users.length} Users</span>
+                                <span className="bg-blue-50 text-blue-700 px-3 py-1 rounded-lg text-xs font-bold uppercase tracking-wide">{users.page.totalElements} Users</span>
                             </div>
                             
                             <div className="flex items-center gap-3 w-full lg:w-auto">
@@ -472,7 +564,7 @@ export function AdminDashboard() {
                                 <div className="relative w-full sm:w-72 group">
                                     <Search className="absolute left-3 top-1/2 -translate-y-1/2 w-4 h-4 text-slate-400" />
                                     <input 
-                                        type="text" placeholder="Search users..." 
+                                        type="text" placeholder="Search name or email..." 
                                         className="w-full pl-10 pr-4 py-2.5 bg-slate-50 border border-slate-200 rounded-xl text-sm focus:ring-2 focus:ring-blue-500 focus:bg-white outline-none transition-all"
                                         value={searchTerm} onChange={(e) => setSearchTerm(e.target.value)}
                                     />
@@ -491,7 +583,7 @@ export function AdminDashboard() {
                                     </tr>
                                 </thead>
                                 <tbody className="divide-y divide-slate-50">
-                                    {filteredUsers.map(user => (
+                                    {users.content.map(user => (
                                         <tr key={user.id} className="hover:bg-blue-50/50 transition-colors group">
                                             <td className="p-5 pl-8">
                                                 <div className="flex items-center gap-4">
@@ -559,18 +651,19 @@ export function AdminDashboard() {
                                 </tbody>
                             </table>
                         </div>
+                        <Pager page={users.page} set={setUserPage} />
                     </div>
                 )}
                 
                 {/* --- MESSAGES, WORKOUTS, RECIPES, TIPS (Standard Logic) --- */}
                 {activeTab === 'messages' && (
                     <div className="grid md:grid-cols-2 lg:grid-cols-3 gap-6 animate-in fade-in slide-in-from-bottom-4 duration-500">
-                        {messages.length === 0 ? (
+                        {messages.content.length === 0 ? (
                             <div className="col-span-full text-center py-20 bg-white rounded-3xl border-2 border-dashed border-slate-200">
                                 <Mail className="w-8 h-8 text-slate-300 mx-auto mb-4" />
                                 <p className="text-slate-500 font-medium">No new messages</p>
                             </div>
-                        ) : messages.map(msg => (
+                        ) : messages.content.map(msg => (
                             <div key={msg.id} className="bg-white p-6 rounded-3xl shadow-sm border border-slate-200 flex flex-col justify-between h-full hover:shadow-lg transition-all duration-300 group">
                                 <div>
                                     <div className="flex justify-between items-start mb-6">
@@ -594,6 +687,11 @@ export function AdminDashboard() {
                                 </div>
                             </div>
                         ))}
+                        {messages.page.totalPages > 1 && (
+                            <div className="col-span-full bg-white rounded-3xl border border-slate-200">
+                                <Pager page={messages.page} set={setMessagePage} />
+                            </div>
+                        )}
                     </div>
                 )}
 
@@ -803,6 +901,19 @@ const NavBtn = ({ id, icon: Icon, label, active, set, badge }) => (
     </button>
 );
 
+// Previous / next for a PagedModel's page metadata; hidden when everything fits on one page
+const Pager = ({ page, set }) => {
+    if (page.totalPages <= 1) return null;
+    const btn = "px-4 py-2 rounded-xl border border-slate-200 text-sm font-bold text-slate-600 hover:bg-slate-50 disabled:opacity-40 disabled:cursor-not-allowed transition-colors";
+    return (
+        <div className="flex items-center justify-between p-4 border-t border-slate-100">
+            <button className={btn} disabled={page.number === 0} onClick={() => set(page.number - 1)}>Previous</button>
+            <span className="text-xs font-bold text-slate-500">Page {page.number + 1} of {page.totalPages}</span>
+            <button className={btn} disabled={page.number + 1 >= page.totalPages} onClick={() => set(page.number + 1)}>Next</button>
+        </div>
+    );
+};
+
 const StatCard = ({ title, value, icon: Icon, color, trend }) => (
     <div className="bg-white p-8 rounded-[2rem] shadow-sm border border-slate-100 hover:shadow-xl transition-all duration-300 relative overflow-hidden group hover:-translate-y-1">
         <div className={`absolute top-0 right-0 p-6 opacity-5 ${color.replace('bg-', 'text-')} group-hover:scale-110 transition-transform duration-500`}><Icon className="w-28 h-28" /></div>